@@ -19,6 +19,7 @@ package choice_optimizer;
  *  along with this program. If not, see <http://www.gnu.org/licenses/>.
  */
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 
@@ -30,21 +31,101 @@ import java.util.HashSet;
 public abstract class AbstractChooser implements Chooser {
 
     protected static final int INVALID_ITEM_PRIORITY = 0;
+    private static final int WORD_SHIFT = 6;
+    private static final int WORD_SIZE = 64;
 
-    protected HashMap<Item, Integer> preferences;
+    protected SparsePreferences preferences;
     protected String name;
     protected HashSet<Item> invalidItems;
+    protected long[] eligibleMask;
+    protected int maskSize;
+    protected int ordinal = -1;
 
     /**
-     * Evaluates whether the given item is a valid assignment.
+     * Builds a bitset over Item ordinals 0 to size - 1 with every bit set except those of the
+     * given invalid Items.
+     * 
+     * @param  size    The number of Items in the problem
+     * @param  invalid The Items that can not be assigned
+     * @return         The bitset as an array of words
+     */
+    protected static long[] buildMask(int size, Collection<Item> invalid) {
+        long[] mask = new long[(size + WORD_SIZE - 1) >>> WORD_SHIFT];
+        for (int i = 0; i < size; i += 1) {
+            mask[i >>> WORD_SHIFT] |= 1L << i;
+        }
+        for (Item item : invalid) {
+            int ordinal = item.ordinal();
+            if (ordinal >= 0 && ordinal < size) {
+                mask[ordinal >>> WORD_SHIFT] &= ~(1L << ordinal);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Evaluates whether the given item is a valid assignment. Items with an ordinal are checked
+     * against this Chooser's bitset, and any others against its set of invalid Items.
      * 
      * @param  item A item object to check the validity of
      * @return      true if this Chooser instance can cover this item, false otherwise
      */
     public boolean eligibleItem(Item item) {
+        int ordinal = item.ordinal();
+        if (masks(ordinal)) {
+            return (eligibleMask[ordinal >>> WORD_SHIFT] & (1L << ordinal)) != 0;
+        }
         return !invalidItems.contains(item);
     }
 
+    /**
+     * Checks if this Chooser's eligibility bitset covers the given Item ordinal, so that the
+     * bitset operations below give the same answers as eligibleItem() for it.
+     * 
+     * @param  ordinal An Item ordinal
+     * @return         true if the ordinal is within this Chooser's bitset
+     */
+    public boolean masks(int ordinal) {
+        return eligibleMask != null && ordinal >= 0 && ordinal < maskSize;
+    }
+
+    /**
+     * Counts the Items of a bitset over Item ordinals that this Chooser can cover.
+     * 
+     * @param  items A bitset over Item ordinals
+     * @return       The number of Items in the bitset this Chooser can cover
+     */
+    public int countEligible(long[] items) {
+        int count = 0;
+        for (int w = 0; w < Math.min(items.length, eligibleMask.length); w += 1) {
+            count += Long.bitCount(items[w] & eligibleMask[w]);
+        }
+        return count;
+    }
+
+    /**
+     * Finds the n-th Item, counting from 0 in ordinal order, of a bitset over Item ordinals that
+     * this Chooser can cover. Used to pick a uniformly random eligible Item.
+     * 
+     * @param  items A bitset over Item ordinals
+     * @param  n     The number of eligible Items to skip
+     * @return       The ordinal of the Item, or -1 if there are not that many eligible Items
+     */
+    public int nthEligible(long[] items, int n) {
+        for (int w = 0; w < Math.min(items.length, eligibleMask.length); w += 1) {
+            long word = items[w] & eligibleMask[w];
+            int count = Long.bitCount(word);
+            if (n < count) {
+                for (int i = 0; i < n; i += 1) {
+                    word &= word - 1;
+                }
+                return (w << WORD_SHIFT) + Long.numberOfTrailingZeros(word);
+            }
+            n -= count;
+        }
+        return -1;
+    }
+
     /**
      * Gets the preference value of a item relative to this Chooser instance
      * 
@@ -52,8 +133,37 @@ public abstract class AbstractChooser implements Chooser {
      * @return The weight of item in this Chooser instance's preferences
      */
     public int itemWeight(Item item) {
-        Integer toReturn = preferences.get(item);
-        return toReturn == null ? Integer.MAX_VALUE : toReturn;
+        return preferences.weight(item);
+    }
+
+    /**
+     * Checks if this Chooser gave an Item a preference value of its own, rather than leaving it
+     * at the default weight.
+     * 
+     * @param  item A item object to check
+     * @return      true if the Item was ranked
+     */
+    public boolean ranksItem(Item item) {
+        return preferences.ranks(item);
+    }
+
+    /**
+     * Gets the weight this Chooser gives Items it did not rank.
+     * 
+     * @return the default weight
+     */
+    public int getDefaultWeight() {
+        return preferences.getDefaultWeight();
+    }
+
+    /**
+     * Gets the index of this Chooser within the problem it belongs to. The index plays no part
+     * in equality, so Choosers with equal names are equal whatever their indices.
+     * 
+     * @return the index of this Chooser, or -1 if it has none
+     */
+    public int ordinal() {
+        return ordinal;
     }
 
     /**
@@ -72,7 +182,9 @@ public abstract class AbstractChooser implements Chooser {
      * @return true if the the other Object is an AbstractChooser and if it has the same name
      */
     @Override public boolean equals(Object other) {
-        if (other instanceof AbstractChooser) {
+        if (this == other) {
+            return true;
+        } else if (other instanceof AbstractChooser) {
             return name.equals(other.toString());
         } else {
             return false;
@@ -96,6 +208,25 @@ public abstract class AbstractChooser implements Chooser {
         protected HashMap<Item, Integer> prefs;
         protected String name;
         protected HashSet<Item> invalid;
+        protected int defaultWeight = Integer.MAX_VALUE;
+        protected int ordinal = -1;
+
+        /**
+         * Sets the index of the Chooser within the problem it belongs to.
+         * @param ordinal The index of the Chooser
+         */
+        public void setOrdinal(int ordinal) {
+            this.ordinal = ordinal;
+        }
+
+        /**
+         * Sets the weight of Items that are not given a preference value, which is
+         * Integer.MAX_VALUE unless set.
+         * @param weight The default weight
+         */
+        public void setDefaultWeight(int weight) {
+            defaultWeight = weight;
+        }
 
         /**
          * Assigned the given Item the given preference with this ChooserBuilder.
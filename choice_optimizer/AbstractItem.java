@@ -28,6 +28,17 @@ package choice_optimizer;
 public abstract class AbstractItem implements Item {
 
     protected String stringRep;
+    protected int ordinal = -1;
+
+    /**
+     * Gets the index of this Item within the problem it belongs to. The index plays no part in
+     * equality, so Items with equal string representations are equal whatever their indices.
+     * 
+     * @return the index of this Item, or -1 if it has none
+     */
+    public int ordinal() {
+        return ordinal;
+    }
 
     /**
      * Returns a string representing this Item. 
@@ -55,7 +66,9 @@ public abstract class AbstractItem implements Item {
      * @return       True if they represent the same item, false otherwise or if other is not a Item
      */
     @Override public boolean equals(Object other) {
-        if (other instanceof AbstractItem) {
+        if (this == other) {
+            return true;
+        } else if (other instanceof AbstractItem) {
             return toString().equals(other.toString());
         } else {
             return false;
@@ -22,6 +22,8 @@ package choice_optimizer;
 import java.util.HashMap;
 import java.util.Collection;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * An abstract class representing assignment mappings in a choice optimization algorithm.
@@ -32,13 +34,23 @@ import java.util.ArrayList;
 public abstract class AbstractMapping<K extends Chooser, V extends Item> implements Mapping<K, V> {
 
     private static final int SHIFT_BY = 32;
+    private static final long MIX_MULTIPLIER = 0xBF58476D1CE4E5B9L;
+    private static final int MIX_SHIFT = 31;
 
     protected HashMap<K, ArrayList<V>> mappings;
     protected double cost;
     protected int items;
 
+    private K undoFirst;
+    private K undoSecond;
+    private int undoFirstIndex;
+    private int undoSecondIndex;
+    private boolean undoTransfer;
+    private boolean canUndo;
+
     /**
-     * Returns a defensive copy of the chooser's schedule.
+     * Returns a defensive copy of the chooser's schedule, for callers that need a list they
+     * can change. Use viewAssignments(chooser) to only read it.
      * 
      * @param  chooser A chooser instance
      * @return         A defensive copy of the list of Item instances assigned to chooser.
@@ -47,16 +59,232 @@ public abstract class AbstractMapping<K extends Chooser, V extends Item> impleme
         return new ArrayList<V>(mappings.get(chooser));
     }
 
+    /**
+     * Returns a read-only view of the chooser's schedule without copying it. A view taken before
+     * an in-place move on this Mapping is not guaranteed to show the move.
+     * 
+     * @param  chooser A chooser instance
+     * @return         An unmodifiable view of the list of Item instances assigned to chooser.
+     */
+    public List<V> viewAssignments(K chooser) {
+        return Collections.unmodifiableList(mappings.get(chooser));
+    }
+
     /**
      * Returns a defensively mutated copy of this Mapping. For use with genetic evolution.
      * 
-     * @return A new, mutated version of this mapping
+     * @return A new, mutated version of this mapping, or null if no valid mutation was found
      */
     public abstract Mapping<K, V> mutate();
     
+    /**
+     * Returns a copy of this Mapping that can be changed in place by moves.
+     * 
+     * @return A copy of this Mapping
+     */
+    public abstract Mapping<K, V> copy();
+
+    /**
+     * Computes the cost of this Mapping after the assignments of two Choosers have been changed
+     * in place. Implementations may cache costs per Chooser, and should only update their caches
+     * if the change is committed.
+     * 
+     * @param  first  The first Chooser whose assignments changed
+     * @param  second The second Chooser whose assignments changed
+     * @param  commit true if the change is being kept, false if it will be reverted
+     * @return        The cost of this Mapping with the changed assignments
+     */
+    protected abstract double evaluate(K first, K second, boolean commit);
+
+    /**
+     * Gets the change in cost that exchanging two Items between two Choosers would make,
+     * without making the exchange.
+     * 
+     * @param  first      The Chooser assigned firstItem
+     * @param  firstItem  An Item assigned to first
+     * @param  second     The Chooser assigned secondItem
+     * @param  secondItem An Item assigned to second
+     * @return            The cost after the exchange minus the current cost
+     */
+    public double swapDelta(K first, V firstItem, K second, V secondItem) {
+        checkDistinct(first, second);
+        int i = indexOf(first, firstItem);
+        int j = indexOf(second, secondItem);
+        double before = getCost();
+        exchange(first, i, second, j);
+        double delta = evaluate(first, second, false) - before;
+        exchange(first, i, second, j);
+        return delta;
+    }
+
+    /**
+     * Exchanges two Items between two Choosers in place. Each Item takes the position of the
+     * other in its new Chooser's assignments.
+     * 
+     * @param first      The Chooser assigned firstItem
+     * @param firstItem  An Item assigned to first
+     * @param second     The Chooser assigned secondItem
+     * @param secondItem An Item assigned to second
+     */
+    public void swap(K first, V firstItem, K second, V secondItem) {
+        checkDistinct(first, second);
+        int i = indexOf(first, firstItem);
+        int j = indexOf(second, secondItem);
+        getCost();
+        exchange(first, i, second, j);
+        cost = evaluate(first, second, true);
+        remember(first, i, second, j, false);
+    }
+
+    /**
+     * Gets the change in cost that moving an Item from one Chooser to another would make,
+     * without moving it.
+     * 
+     * @param  from The Chooser assigned the Item
+     * @param  item An Item assigned to from
+     * @param  to   The Chooser to move the Item to
+     * @return      The cost after the move minus the current cost
+     */
+    public double transferDelta(K from, V item, K to) {
+        checkDistinct(from, to);
+        int i = indexOf(from, item);
+        double before = getCost();
+        ArrayList<V> fromList = writableAssignments(from);
+        ArrayList<V> toList = writableAssignments(to);
+        toList.add(fromList.remove(i));
+        double delta = evaluate(from, to, false) - before;
+        fromList.add(i, toList.remove(toList.size() - 1));
+        return delta;
+    }
+
+    /**
+     * Moves an Item from one Chooser to the end of another's assignments in place. This changes
+     * how many Items each Chooser holds, so a Mapping with fixed quotas is only valid again once
+     * it is balanced by another transfer.
+     * 
+     * @param from The Chooser assigned the Item
+     * @param item An Item assigned to from
+     * @param to   The Chooser to move the Item to
+     */
+    public void transfer(K from, V item, K to) {
+        checkDistinct(from, to);
+        int i = indexOf(from, item);
+        getCost();
+        writableAssignments(to).add(writableAssignments(from).remove(i));
+        cost = evaluate(from, to, true);
+        remember(from, i, to, -1, true);
+    }
+
+    /**
+     * Reverts the last swap or transfer made on this Mapping. Only one move can be undone.
+     */
+    public void undo() {
+        if (!canUndo) {
+            throw new IllegalStateException("There is no move to undo.");
+        }
+        if (undoTransfer) {
+            ArrayList<V> toList = writableAssignments(undoSecond);
+            writableAssignments(undoFirst).add(undoFirstIndex,
+                                               toList.remove(toList.size() - 1));
+        } else {
+            exchange(undoFirst, undoFirstIndex, undoSecond, undoSecondIndex);
+        }
+        cost = evaluate(undoFirst, undoSecond, true);
+        canUndo = false;
+    }
+
+    /**
+     * Finds the position of an Item in a Chooser's assignments.
+     * 
+     * @param  chooser The Chooser to look in
+     * @param  item    The Item to look for
+     * @return         The index of the Item in the Chooser's assignments
+     */
+    private int indexOf(K chooser, V item) {
+        int index = assignmentsOf(chooser).indexOf(item);
+        if (index < 0) {
+            throw new IllegalArgumentException(String.format("%s is not assigned to %s.",
+                                                             item, chooser));
+        }
+        return index;
+    }
+
+    /**
+     * Gets the assignments of a Chooser in this Mapping, without copying them.
+     * 
+     * @param  chooser The Chooser to get the assignments of
+     * @return         The list of Items assigned to the Chooser
+     */
+    private ArrayList<V> assignmentsOf(K chooser) {
+        ArrayList<V> list = mappings.get(chooser);
+        if (list == null) {
+            throw new IllegalArgumentException(String.format("%s is not in this Mapping.",
+                                                             chooser));
+        }
+        return list;
+    }
+
+    /**
+     * Gets the assignments of a Chooser so that a move can change them in place. Subclasses that
+     * share assignment lists between Mappings should override this to copy a shared list
+     * before it is first written.
+     * 
+     * @param  chooser The Chooser to get the assignments of
+     * @return         The list of Items assigned to the Chooser, safe to change in place
+     */
+    protected ArrayList<V> writableAssignments(K chooser) {
+        return assignmentsOf(chooser);
+    }
+
+    /**
+     * Checks that a move involves two different Choosers.
+     * 
+     * @param first  The first Chooser of the move
+     * @param second The second Chooser of the move
+     */
+    private void checkDistinct(K first, K second) {
+        if (first.equals(second)) {
+            throw new IllegalArgumentException("A move must involve two different Choosers.");
+        }
+    }
+
+    /**
+     * Exchanges the Items at two positions of two different Choosers' assignments.
+     * 
+     * @param first  The first Chooser
+     * @param i      The position in the first Chooser's assignments
+     * @param second The second Chooser
+     * @param j      The position in the second Chooser's assignments
+     */
+    private void exchange(K first, int i, K second, int j) {
+        ArrayList<V> firstList = writableAssignments(first);
+        ArrayList<V> secondList = writableAssignments(second);
+        firstList.set(i, secondList.set(j, firstList.get(i)));
+    }
+
+    /**
+     * Records a move so that it can be undone.
+     * 
+     * @param first    The Chooser an Item was taken from
+     * @param i        The position in the first Chooser's assignments
+     * @param second   The Chooser an Item was given to
+     * @param j        The position in the second Chooser's assignments, unused for transfers
+     * @param transfer true if the move was a transfer, false if it was a swap
+     */
+    private void remember(K first, int i, K second, int j, boolean transfer) {
+        undoFirst = first;
+        undoSecond = second;
+        undoFirstIndex = i;
+        undoSecondIndex = j;
+        undoTransfer = transfer;
+        canUndo = true;
+    }
+
     /**
      * Gets the 'cost' of a mapping. The cost is some function of the Chooser assignments. 
-     * Also known as the fitness.
+     * Also known as the fitness. Subclasses that compute their cost lazily override this, so
+     * the cost field should only be read through it, and moves call it before changing any
+     * assignments.
      *         
      * @return the cost of this mapping
      */
@@ -72,12 +300,54 @@ public abstract class AbstractMapping<K extends Chooser, V extends Item> impleme
     @Override public boolean equals(Object other) {
         if (other instanceof AbstractMapping) {
             AbstractMapping o = (AbstractMapping) other;
-            return (new Double(cost)).equals(o.getCost()) && mappings.equals(o.mappings);
+            return (new Double(getCost())).equals(o.getCost()) && mappings.equals(o.mappings);
         } else {
             return false;
         }
     }
     
+    /**
+     * Gets a fingerprint of the assignments of this Mapping without costing it. The Items of
+     * each Chooser are combined by summing their mixed hashes, and the Choosers by summing the
+     * mixed keys and Item sums, so neither the order of the Items nor that of the Choosers
+     * matters.
+     *
+     * @return a 64 bit fingerprint of the assignments
+     */
+    public long fingerprint() {
+        long total = 0;
+        for (K chooser : mappings.keySet()) {
+            long sum = 0;
+            for (V item : mappings.get(chooser)) {
+                sum += mix(item.hashCode());
+            }
+            total += mix(chooserKey(chooser) ^ mix(sum));
+        }
+        return total;
+    }
+
+    /**
+     * Gets the key a Chooser's assignments are fingerprinted under. Subclasses whose Choosers
+     * can be exchanged without changing the Mapping should give such Choosers the same key.
+     *
+     * @param  chooser The Chooser to get the key of
+     * @return         The key of the Chooser
+     */
+    protected long chooserKey(K chooser) {
+        return chooser.hashCode();
+    }
+
+    /**
+     * Scrambles the bits of a value so that sums of scrambled values rarely collide.
+     *
+     * @param  value The value to scramble
+     * @return       The scrambled value
+     */
+    private static long mix(long value) {
+        long hash = (value ^ (value >>> MIX_SHIFT)) * MIX_MULTIPLIER;
+        return hash ^ (hash >>> MIX_SHIFT);
+    }
+
     /**
      * Compares a Mapping to another by their costs.
      * 
@@ -85,7 +355,7 @@ public abstract class AbstractMapping<K extends Chooser, V extends Item> impleme
      * @return       A value less than 0 if this is smaller, greater than if this is bigger, else 0 
      */
     @Override public int compareTo(Mapping<K, V> other) {
-        return Double.compare(cost, other.getCost());
+        return Double.compare(getCost(), other.getCost());
     }
 
     /**
@@ -94,7 +364,7 @@ public abstract class AbstractMapping<K extends Chooser, V extends Item> impleme
      * @return a hash of this Mapping.
      */
     @Override public int hashCode() {
-        long converted =  Double.doubleToLongBits(this.cost);
+        long converted =  Double.doubleToLongBits(getCost());
         return (int) (converted ^ (converted >>> SHIFT_BY));
     }
 
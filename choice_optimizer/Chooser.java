@@ -42,6 +42,13 @@ public interface Chooser {
      */
     int itemWeight(Item item);
 
+    /**
+     * Returns the index of this Chooser within the problem it belongs to
+     * 
+     * @return The index of this Chooser, or -1 if it has none
+     */
+    int ordinal();
+
     @Override String toString();
     @Override boolean equals(Object other);
     @Override int hashCode();
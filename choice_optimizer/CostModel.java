@@ -0,0 +1,309 @@
+package choice_optimizer;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *  
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it 
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the 
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *  
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.MutableCallSite;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A cost function made of weighted terms over a fixed list of features, such as the sum of a
+ * Chooser's preference weights or the number of Items it was assigned. Every term is a
+ * MethodHandle taking some of the features as doubles and returning a double. Building a
+ * CostModel composes the terms with non-zero weight into one MethodHandle taking every feature
+ * in order, so evaluating the model is a single invocation rather than a loop over the terms.
+ * Invoked from an instance field, the composed MethodHandle is not a constant, so the JIT does
+ * not inline it and each evaluation pays for one MethodHandle call. Binding the model to a call
+ * site held in a static final field makes it a constant, and calls through the site's dynamic
+ * invoker inline the terms like hand-written arithmetic. CostModels are immutable.
+ *
+ * @author Matthew Mussomele
+ */
+public final class CostModel {
+
+    private static final MethodHandle ADD;
+    private static final MethodHandle SCALE;
+
+    static {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodType binary = MethodType.methodType(double.class, double.class, double.class);
+        try {
+            ADD = lookup.findStatic(CostModel.class, "add", binary);
+            SCALE = lookup.findStatic(CostModel.class, "scale", binary);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final String[] features;
+    private final LinkedHashMap<String, Double> weights;
+    private final MethodHandle evaluator;
+
+    /**
+     * Creates a CostModel from a builder, compiling its weighted terms.
+     *
+     * @param  builder The builder holding the features, terms and weights
+     */
+    private CostModel(ModelBuilder builder) {
+        features = builder.features;
+        weights = new LinkedHashMap<String, Double>();
+        Class<?>[] types = new Class<?>[features.length];
+        Arrays.fill(types, double.class);
+        MethodHandle sum = null;
+        for (Map.Entry<String, Double> entry : builder.weights.entrySet()) {
+            double weight = entry.getValue();
+            if (weight == 0.0) {
+                continue;
+            }
+            weights.put(entry.getKey(), weight);
+            MethodHandle term = builder.terms.get(entry.getKey());
+            if (weight != 1.0) {
+                MethodHandle scale = MethodHandles.insertArguments(SCALE, 0, weight);
+                term = MethodHandles.filterReturnValue(term, scale);
+            }
+            if (sum == null) {
+                sum = term;
+            } else {
+                MethodHandle add = MethodHandles.dropArguments(ADD, 2, types);
+                add = MethodHandles.foldArguments(add, MethodHandles.dropArguments(term, 0,
+                                                                                   double.class));
+                sum = MethodHandles.foldArguments(add, sum);
+            }
+        }
+        if (sum == null) {
+            sum = MethodHandles.dropArguments(MethodHandles.constant(double.class, 0.0), 0,
+                                              types);
+        }
+        evaluator = sum;
+    }
+
+    /**
+     * Parses a list of term weights, written as comma separated name:weight pairs, such as
+     * "preference:1,adjacency:2.5". Whitespace around names and weights is ignored.
+     *
+     * @param  spec The list of weights
+     * @return      The weight of each named term, in the order they were listed
+     */
+    public static LinkedHashMap<String, Double> parseWeights(String spec) {
+        LinkedHashMap<String, Double> parsed = new LinkedHashMap<String, Double>();
+        if (spec.trim().isEmpty()) {
+            return parsed;
+        }
+        for (String pair : spec.split(",")) {
+            String[] parts = pair.split(":");
+            if (parts.length != 2 || parts[0].trim().isEmpty()) {
+                throw new IllegalArgumentException(String.format("Cost terms must be written as "
+                                                                 + "name:weight, not %s.", pair));
+            }
+            try {
+                parsed.put(parts[0].trim(), Double.parseDouble(parts[1].trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(String.format("%s is not a valid weight.",
+                                                                 parts[1].trim()));
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * Gets the compiled evaluator of this CostModel. It takes every feature as a double, in the
+     * order the features were declared, and returns the weighted sum of the terms. Call it with
+     * invokeExact, casting the result to double.
+     *
+     * @return The evaluator MethodHandle
+     */
+    public MethodHandle evaluator() {
+        return evaluator;
+    }
+
+    /**
+     * Makes the evaluator of this CostModel the target of a call site. Code compiled against the
+     * site's previous target is thrown away, so a site should only be bound once.
+     *
+     * @param  site A call site taking every feature as a double and returning a double
+     */
+    public void bindTo(MutableCallSite site) {
+        if (!site.type().equals(evaluator.type())) {
+            throw new IllegalArgumentException(String.format("A call site of type %s cannot hold "
+                                                             + "an evaluator of type %s.",
+                                                             site.type(), evaluator.type()));
+        }
+        site.setTarget(evaluator);
+        MutableCallSite.syncAll(new MutableCallSite[] {site});
+    }
+
+    /**
+     * Gets the weight of a term in this CostModel.
+     *
+     * @param  term The name of the term
+     * @return      The weight of the term, or 0 if it is not part of the model
+     */
+    public double weight(String term) {
+        Double weight = weights.get(term);
+        return weight == null ? 0.0 : weight;
+    }
+
+    /**
+     * Gets the features evaluated by this CostModel.
+     *
+     * @return The names of the features, in the order the evaluator takes them
+     */
+    public String[] getFeatures() {
+        return features.clone();
+    }
+
+    /**
+     * Lists the terms of this CostModel with their weights, in the format parseWeights reads.
+     *
+     * @return The non-zero term weights of this model
+     */
+    @Override public String toString() {
+        StringBuilder result = new StringBuilder();
+        for (Map.Entry<String, Double> entry : weights.entrySet()) {
+            if (result.length() > 0) {
+                result.append(',');
+            }
+            result.append(entry.getKey()).append(':').append(entry.getValue());
+        }
+        return result.toString();
+    }
+
+    /**
+     * Adds two doubles, for composing terms.
+     *
+     * @param  x The first value
+     * @param  y The second value
+     * @return   x + y
+     */
+    private static double add(double x, double y) {
+        return x + y;
+    }
+
+    /**
+     * Multiplies two doubles, for weighting terms.
+     *
+     * @param  weight The weight of a term
+     * @param  value  The value of the term
+     * @return        weight * value
+     */
+    private static double scale(double weight, double value) {
+        return weight * value;
+    }
+
+    /**
+     * A builder for CostModels. The features are fixed when it is created; terms are then
+     * defined over them and given weights. A term left at weight 0 is not compiled at all.
+     */
+    public static class ModelBuilder {
+
+        private final String[] features;
+        private final LinkedHashMap<String, MethodHandle> terms;
+        private final LinkedHashMap<String, Double> weights;
+
+        /**
+         * Creates a ModelBuilder.
+         *
+         * @param  features The names of the features, in the order the evaluator will take them
+         */
+        public ModelBuilder(String... features) {
+            this.features = features.clone();
+            terms = new LinkedHashMap<String, MethodHandle>();
+            weights = new LinkedHashMap<String, Double>();
+        }
+
+        /**
+         * Defines a term, with an initial weight of 0.
+         * @param name   The name of the term
+         * @param term   A MethodHandle taking one double per input and returning a double
+         * @param inputs The names of the features the term takes, in the order it takes them
+         * @return this builder
+         */
+        public ModelBuilder define(String name, MethodHandle term, String... inputs) {
+            if (terms.containsKey(name)) {
+                throw new IllegalArgumentException(String.format("The term %s is already "
+                                                                 + "defined.", name));
+            }
+            Class<?>[] types = new Class<?>[inputs.length];
+            Arrays.fill(types, double.class);
+            if (!term.type().equals(MethodType.methodType(double.class, types))) {
+                throw new IllegalArgumentException(String.format("The term %s must take %d "
+                                                   + "doubles and return a double.", name,
+                                                   inputs.length));
+            }
+            int[] reorder = new int[inputs.length];
+            for (int i = 0; i < inputs.length; i += 1) {
+                reorder[i] = Arrays.asList(features).indexOf(inputs[i]);
+                if (reorder[i] < 0) {
+                    throw new IllegalArgumentException(String.format("The term %s uses the "
+                                                       + "unknown feature %s.", name, inputs[i]));
+                }
+            }
+            Class<?>[] all = new Class<?>[features.length];
+            Arrays.fill(all, double.class);
+            terms.put(name, MethodHandles.permuteArguments(term,
+                                                           MethodType.methodType(double.class,
+                                                                                 all), reorder));
+            weights.put(name, 0.0);
+            return this;
+        }
+
+        /**
+         * Checks if a term has been defined.
+         *
+         * @param  name The name of the term
+         * @return      true if the term is defined
+         */
+        public boolean defines(String name) {
+            return terms.containsKey(name);
+        }
+
+        /**
+         * Sets the weight of a defined term.
+         * @param name   The name of the term
+         * @param weight The weight to multiply the term by. A weight of 0 leaves the term out.
+         * @return this builder
+         */
+        public ModelBuilder setWeight(String name, double weight) {
+            if (!terms.containsKey(name)) {
+                throw new IllegalArgumentException(String.format("Unknown cost term %s.", name));
+            }
+            if (Double.isNaN(weight) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException(String.format("The weight of %s must be "
+                                                                 + "finite.", name));
+            }
+            weights.put(name, weight);
+            return this;
+        }
+
+        /**
+         * Compiles the weighted terms into a CostModel.
+         *
+         * @return A new CostModel
+         */
+        public CostModel build() {
+            return new CostModel(this);
+        }
+
+    }
+
+}
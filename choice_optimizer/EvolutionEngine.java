@@ -0,0 +1,564 @@
+package choice_optimizer;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *  
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it 
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the 
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *  
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A genetic algorithm for any choice optimization Problem, configured by an EvolutionOptions.
+ * All of its state belongs to the instance, so engines for different problems, or for the same
+ * problem with different options, can run at the same time in one JVM. A single engine is not
+ * meant to be used from several threads at once.
+ *
+ * Like a TreeSet of Mappings, a population holds at most one Mapping of any given cost, and it
+ * never holds two Mappings with the same fingerprint. Offspring are checked against the population
+ * by fingerprint before they are costed, and the ones that are left are costed together. Each
+ * iteration selects parents for half of the population, keeps the better half and adds a mutation
+ * of each parent; in steady-state mode single offspring replace the worst Mapping instead.
+ * Offspring dropped as duplicates are made up for with further mutations of the survivors, so
+ * random Mappings only enter the population when part of it is restarted because its diversity
+ * collapsed.
+ *
+ * The bookkeeping of a step does not allocate. Fingerprints and costs are kept as primitive
+ * columns beside the ranked Mappings, and selection, ranking and duplicate checks read only
+ * the columns. Fingerprints are also held in FingerprintSets that are cleared rather than
+ * rebuilt, the costed offspring are
+ * merged with the survivors into a second population buffer that is then swapped with the
+ * first, and offspring are costed by one reusable task per thread. Mappings themselves are
+ * still created by mutation, sharing the unchanged parts of their parents.
+ *
+ * @author Matthew Mussomele
+ */
+public class EvolutionEngine<C extends Chooser, I extends Item> {
+
+    private static final int MUTATION_RETRIES = 3;
+    private static final int DIVERSITY_SAMPLES = 16;
+
+    private final Problem<C, I> problem;
+    private final EvolutionOptions options;
+    private final Random gen;
+    private final FingerprintSet held;
+    private final FingerprintSet fresh;
+    private final ArrayList<Mapping<C, I>> babies;
+    private final long[] babyPrints;
+    private final double[] babyCosts;
+    private final int[] parentRanks;
+    private final ArrayList<Future<?>> results;
+    private ArrayList<Mapping<C, I>> ranked;
+    private ArrayList<Mapping<C, I>> spare;
+    private long[] prints;
+    private long[] sparePrints;
+    private double[] costs;
+    private double[] spareCosts;
+    private Runnable[] costers;
+    private ExecutorService pool;
+    private int restarts;
+    private double[] history;
+    private double[][] histories;
+
+    /**
+     * Creates an EvolutionEngine.
+     *
+     * @param  problem The Problem to solve
+     * @param  options The parameters of the genetic algorithm
+     */
+    public EvolutionEngine(Problem<C, I> problem, EvolutionOptions options) {
+        this(problem, options, new Random());
+    }
+
+    /**
+     * Creates an EvolutionEngine with a given source of randomness, so runs can be repeated.
+     *
+     * @param  problem The Problem to solve
+     * @param  options The parameters of the genetic algorithm
+     * @param  gen     The source of randomness to use
+     */
+    public EvolutionEngine(Problem<C, I> problem, EvolutionOptions options, Random gen) {
+        this.problem = problem;
+        this.options = options;
+        this.gen = gen;
+        int size = options.getPopulationSize();
+        held = new FingerprintSet(size);
+        fresh = new FingerprintSet(size);
+        babies = new ArrayList<Mapping<C, I>>(size);
+        babyPrints = new long[size];
+        babyCosts = new double[size];
+        parentRanks = new int[size];
+        results = new ArrayList<Future<?>>(options.getEvalThreads());
+        ranked = new ArrayList<Mapping<C, I>>(size);
+        spare = new ArrayList<Mapping<C, I>>(size);
+        prints = new long[size];
+        sparePrints = new long[size];
+        costs = new double[size];
+        spareCosts = new double[size];
+        restarts = 0;
+    }
+
+    /**
+     * Evolves as many populations as the options ask for and returns the best Mapping any of
+     * them found.
+     *
+     * @return The cheapest Mapping found
+     */
+    public Mapping<C, I> solve() {
+        Mapping<C, I> best = null;
+        histories = new double[options.getRuns()][];
+        if (options.getEvalThreads() > 1) {
+            pool = Executors.newFixedThreadPool(options.getEvalThreads());
+            costers = new Runnable[options.getEvalThreads()];
+            for (int t = 0; t < costers.length; t += 1) {
+                final int first = t;
+                costers[t] = new Runnable() {
+                    public void run() {
+                        for (int i = first; i < babies.size(); i += costers.length) {
+                            babies.get(i).getCost();
+                        }
+                    }
+                };
+            }
+        }
+        try {
+            for (int run = 0; run < options.getRuns(); run += 1) {
+                Mapping<C, I> local = evolve();
+                histories[run] = history;
+                if (best == null || local.getCost() < best.getCost()) {
+                    best = local;
+                }
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+                pool = null;
+                costers = null;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Seeds a new population, with the Problem's seed Mappings first, and evolves it. The cost of
+     * the cheapest Mapping is recorded at the start of every iteration.
+     *
+     * @return The cheapest Mapping of the population
+     */
+    public Mapping<C, I> evolve() {
+        truncate(0);
+        history = new double[options.getIterations()];
+        for (Mapping<C, I> seed : problem.seedMappings(options.getPopulationSize(), gen)) {
+            if (seed != null && ranked.size() < options.getPopulationSize()) {
+                add(seed);
+            }
+        }
+        fill();
+        if (ranked.isEmpty()) {
+            throw new IllegalStateException("Seeding the population timed out.");
+        }
+        for (int i = 0; i < options.getIterations(); i += 1) {
+            history[i] = costs[0];
+            if (options.isSteadyState()) {
+                for (int j = 0; j < ranked.size() / 2; j += 1) {
+                    steadyStep();
+                }
+            } else {
+                step();
+            }
+            if (diversity() < options.getDiversityThreshold()) {
+                int size = options.getPopulationSize();
+                int replaced = (int) Math.round(options.getRestartFraction() * size);
+                truncate(Math.max(1, size - replaced));
+                restarts += 1;
+                fill();
+            } else {
+                replenish();
+            }
+        }
+        return ranked.get(0);
+    }
+
+    /**
+     * Estimates the diversity of the current population as the mean fraction of Items two of
+     * its Mappings assign to different Choosers, sampled over random pairs.
+     *
+     * @return The estimated diversity, from 0 for identical Mappings up to 1
+     */
+    public double diversity() {
+        if (ranked.size() < 2 || problem.itemCount() == 0) {
+            return 0.0;
+        }
+        long total = 0;
+        for (int i = 0; i < DIVERSITY_SAMPLES; i += 1) {
+            int first = gen.nextInt(ranked.size());
+            int second = gen.nextInt(ranked.size() - 1);
+            if (second >= first) {
+                second += 1;
+            }
+            total += problem.distance(ranked.get(first), ranked.get(second));
+        }
+        return (double) total / DIVERSITY_SAMPLES / problem.itemCount();
+    }
+
+    /**
+     * Gets the cost of the cheapest Mapping at the start of each iteration of the last evolved
+     * population.
+     *
+     * @return The cost history, or an empty array if nothing was evolved yet
+     */
+    public double[] getHistory() {
+        return history == null ? new double[0] : Arrays.copyOf(history, history.length);
+    }
+
+    /**
+     * Gets the cost history of every population evolved by the last call to solve().
+     *
+     * @return One cost history per run, or an empty array if nothing was solved yet
+     */
+    public double[][] getHistories() {
+        if (histories == null) {
+            return new double[0][];
+        }
+        double[][] copies = new double[histories.length][];
+        for (int i = 0; i < histories.length; i += 1) {
+            copies[i] = histories[i] == null ? null : Arrays.copyOf(histories[i],
+                                                                     histories[i].length);
+        }
+        return copies;
+    }
+
+    /**
+     * Gets the number of partial restarts made because diversity collapsed.
+     *
+     * @return The number of restarts made so far
+     */
+    public int getRestarts() {
+        return restarts;
+    }
+
+    /**
+     * Steps a generational evolution forward by one iteration.
+     */
+    private void step() {
+        int keep = ranked.size() / 2;
+        options.getSelection().select(ranked.size(), parentRanks, keep, gen);
+        babies.clear();
+        for (int i = 0; i < keep; i += 1) {
+            Mapping<C, I> baby = ranked.get(parentRanks[i]).mutate();
+            if (baby != null) {
+                babies.add(baby);
+            }
+        }
+        truncate(keep);
+        screen();
+        evaluateAll();
+        addBabies();
+    }
+
+    /**
+     * Steps a steady-state evolution forward by one offspring, which replaces the most expensive
+     * Mapping if it is cheaper and neither its fingerprint nor its cost is already held. The
+     * offspring is only costed if its fingerprint is new.
+     */
+    private void steadyStep() {
+        int rank = options.getSelection().select(ranked.size(), gen);
+        Mapping<C, I> next = ranked.get(rank).mutate();
+        if (next == null) {
+            return;
+        }
+        long print = next.fingerprint();
+        if (!held.contains(print) && Double.compare(next.getCost(), costs[ranked.size() - 1]) < 0
+                && search(next.getCost()) < 0) {
+            truncate(ranked.size() - 1);
+            add(next, print);
+        }
+    }
+
+    /**
+     * Drops offspring whose fingerprint matches a held Mapping or an earlier offspring, without
+     * costing anything. A duplicate is first mutated further a bounded number of times, and the
+     * fingerprints of the offspring that are left are recorded.
+     */
+    private void screen() {
+        fresh.clear();
+        int kept = 0;
+        for (int i = 0; i < babies.size(); i += 1) {
+            Mapping<C, I> next = babies.get(i);
+            long print = next.fingerprint();
+            for (int j = 0; j < MUTATION_RETRIES && next != null
+                            && (held.contains(print) || fresh.contains(print)); j += 1) {
+                next = next.mutate();
+                print = next == null ? 0 : next.fingerprint();
+            }
+            if (next != null && !held.contains(print) && fresh.add(print)) {
+                babies.set(kept, next);
+                babyPrints[kept] = print;
+                kept += 1;
+            }
+        }
+        while (babies.size() > kept) {
+            babies.remove(babies.size() - 1);
+        }
+    }
+
+    /**
+     * Adds the screened and costed offspring to the population. The offspring are sorted by
+     * cost and merged with the population into the spare buffer, which then becomes the
+     * population. An offspring is dropped if a held Mapping or an earlier offspring has the same
+     * cost.
+     */
+    private void addBabies() {
+        sortBabies();
+        spare.clear();
+        int size = 0;
+        int r = 0;
+        int b = 0;
+        while (r < ranked.size() || b < babies.size()) {
+            int comparison = b == babies.size() ? -1
+                             : r == ranked.size() ? 1 : Double.compare(costs[r], babyCosts[b]);
+            Mapping<C, I> next;
+            long print;
+            double cost;
+            if (comparison <= 0) {
+                next = ranked.get(r);
+                print = prints[r];
+                cost = costs[r];
+                r += 1;
+                if (comparison == 0) {
+                    b += 1;
+                }
+            } else {
+                next = babies.get(b);
+                print = babyPrints[b];
+                cost = babyCosts[b];
+                b += 1;
+                if (size > 0 && Double.compare(spareCosts[size - 1], cost) == 0) {
+                    continue;
+                }
+                held.add(print);
+            }
+            spare.add(next);
+            sparePrints = ensureRoom(sparePrints, size);
+            spareCosts = ensureRoom(spareCosts, size);
+            sparePrints[size] = print;
+            spareCosts[size] = cost;
+            size += 1;
+        }
+        ArrayList<Mapping<C, I>> swapped = ranked;
+        ranked = spare;
+        spare = swapped;
+        long[] swappedPrints = prints;
+        prints = sparePrints;
+        sparePrints = swappedPrints;
+        double[] swappedCosts = costs;
+        costs = spareCosts;
+        spareCosts = swappedCosts;
+        spare.clear();
+        babies.clear();
+    }
+
+    /**
+     * Records the costs of the offspring and sorts them with their fingerprints by increasing
+     * cost with an insertion sort, which keeps offspring of equal cost in the order they were
+     * made.
+     */
+    private void sortBabies() {
+        for (int i = 0; i < babies.size(); i += 1) {
+            Mapping<C, I> next = babies.get(i);
+            long print = babyPrints[i];
+            double cost = next.getCost();
+            int j = i - 1;
+            while (j >= 0 && Double.compare(babyCosts[j], cost) > 0) {
+                babies.set(j + 1, babies.get(j));
+                babyPrints[j + 1] = babyPrints[j];
+                babyCosts[j + 1] = babyCosts[j];
+                j -= 1;
+            }
+            babies.set(j + 1, next);
+            babyPrints[j + 1] = print;
+            babyCosts[j + 1] = cost;
+        }
+    }
+
+    /**
+     * Costs the offspring of a step, on the engine's threads if it has any.
+     */
+    private void evaluateAll() {
+        if (pool == null || babies.size() < 2) {
+            for (Mapping<C, I> baby : babies) {
+                baby.getCost();
+            }
+            return;
+        }
+        results.clear();
+        for (Runnable coster : costers) {
+            results.add(pool.submit(coster));
+        }
+        try {
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            throw new RuntimeException("Interrupted while costing offspring.", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Costing an offspring failed.", e.getCause());
+        }
+    }
+
+    /**
+     * Makes up for offspring dropped as duplicates with mutations of selected survivors, which
+     * are screened and costed like the offspring of a step. Mutations that are still duplicates
+     * are dropped too, leaving the population short until the next iteration.
+     */
+    private void replenish() {
+        int missing = options.getPopulationSize() - ranked.size();
+        if (missing <= 0 || ranked.isEmpty()) {
+            return;
+        }
+        babies.clear();
+        for (int i = 0; i < missing; i += 1) {
+            Mapping<C, I> baby = ranked.get(options.getSelection().select(ranked.size(), gen))
+                                       .mutate();
+            if (baby != null) {
+                babies.add(baby);
+            }
+        }
+        screen();
+        evaluateAll();
+        addBabies();
+    }
+
+    /**
+     * Adds random Mappings until the population is full, giving up after too many failed
+     * attempts in a row.
+     */
+    private void fill() {
+        int attempts = 0;
+        while (ranked.size() < options.getPopulationSize()
+                && attempts < options.getSeedAttempts()) {
+            Mapping<C, I> next = problem.randomMapping(gen);
+            if (next == null || !add(next)) {
+                attempts += 1;
+            } else {
+                attempts = 0;
+            }
+        }
+    }
+
+    /**
+     * Adds a Mapping in its ranked position, unless a Mapping with the same fingerprint or of
+     * equal cost is already held.
+     *
+     * @param  mapping The Mapping to add
+     * @return         true if the Mapping was added
+     */
+    private boolean add(Mapping<C, I> mapping) {
+        return add(mapping, mapping.fingerprint());
+    }
+
+    /**
+     * Adds a Mapping whose fingerprint is known in its ranked position, unless a Mapping with
+     * the same fingerprint or of equal cost is already held.
+     *
+     * @param  mapping The Mapping to add
+     * @param  print   The fingerprint of the Mapping
+     * @return         true if the Mapping was added
+     */
+    private boolean add(Mapping<C, I> mapping, long print) {
+        if (held.contains(print)) {
+            return false;
+        }
+        double cost = mapping.getCost();
+        int position = search(cost);
+        if (position >= 0) {
+            return false;
+        }
+        int rank = -(position + 1);
+        prints = ensureRoom(prints, ranked.size());
+        costs = ensureRoom(costs, ranked.size());
+        System.arraycopy(prints, rank, prints, rank + 1, ranked.size() - rank);
+        System.arraycopy(costs, rank, costs, rank + 1, ranked.size() - rank);
+        prints[rank] = print;
+        costs[rank] = cost;
+        ranked.add(rank, mapping);
+        held.add(print);
+        return true;
+    }
+
+    /**
+     * Drops the most expensive Mappings until only the given number remain.
+     *
+     * @param size The number of Mappings to keep
+     */
+    private void truncate(int size) {
+        while (ranked.size() > size) {
+            ranked.remove(ranked.size() - 1);
+            held.remove(prints[ranked.size()]);
+        }
+    }
+
+    /**
+     * Makes sure a fingerprint column has room for one more fingerprint than it holds.
+     *
+     * @param  column The fingerprint column
+     * @param  used   The number of fingerprints it holds
+     * @return        The column, or a larger copy of it if it was full
+     */
+    private static long[] ensureRoom(long[] column, int used) {
+        return used < column.length ? column : Arrays.copyOf(column, 2 * column.length + 1);
+    }
+
+    /**
+     * Makes sure a cost column has room for one more cost than it holds.
+     *
+     * @param  column The cost column
+     * @param  used   The number of costs it holds
+     * @return        The column, or a larger copy of it if it was full
+     */
+    private static double[] ensureRoom(double[] column, int used) {
+        return used < column.length ? column : Arrays.copyOf(column, 2 * column.length + 1);
+    }
+
+    /**
+     * Finds the rank of the Mapping of a given cost by binary search over the cost column.
+     *
+     * @param  cost The cost to look for
+     * @return      The rank of the Mapping if found, otherwise -(insertion point) - 1
+     */
+    private int search(double cost) {
+        int low = 0;
+        int high = ranked.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = Double.compare(costs[middle], cost);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+}
@@ -0,0 +1,327 @@
+package choice_optimizer;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *  
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it 
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the 
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *  
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+/**
+ * An immutable set of parameters for a genetic algorithm run. Built with an OptionsBuilder, so
+ * one EvolutionOptions can be shared by any number of runs, on any number of threads.
+ *
+ * @author Matthew Mussomele
+ */
+public final class EvolutionOptions {
+
+    private final int populationSize;
+    private final int iterations;
+    private final int runs;
+    private final int seedAttempts;
+    private final boolean steadyState;
+    private final Selection selection;
+    private final double diversityThreshold;
+    private final double restartFraction;
+    private final int evalThreads;
+
+    /**
+     * Creates an EvolutionOptions from a builder.
+     *
+     * @param  builder The builder holding the parameters
+     */
+    private EvolutionOptions(OptionsBuilder builder) {
+        populationSize = builder.populationSize;
+        iterations = builder.iterations;
+        runs = builder.runs;
+        seedAttempts = builder.seedAttempts;
+        steadyState = builder.steadyState;
+        selection = builder.selection;
+        diversityThreshold = builder.diversityThreshold;
+        restartFraction = builder.restartFraction;
+        evalThreads = builder.evalThreads;
+    }
+
+    /**
+     * Gets the number of Mappings in a population.
+     *
+     * @return the population size
+     */
+    public int getPopulationSize() {
+        return populationSize;
+    }
+
+    /**
+     * Gets the number of iterations each population is evolved for.
+     *
+     * @return the number of iterations per run
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Gets the number of independent populations evolved, keeping the best result.
+     *
+     * @return the number of runs
+     */
+    public int getRuns() {
+        return runs;
+    }
+
+    /**
+     * Gets the number of failed attempts allowed in a row while seeding a population.
+     *
+     * @return the number of seed attempts
+     */
+    public int getSeedAttempts() {
+        return seedAttempts;
+    }
+
+    /**
+     * Checks if evolution replaces one Mapping at a time rather than half the population.
+     *
+     * @return true for steady-state evolution
+     */
+    public boolean isSteadyState() {
+        return steadyState;
+    }
+
+    /**
+     * Gets the parent Selection strategy.
+     *
+     * @return the Selection
+     */
+    public Selection getSelection() {
+        return selection;
+    }
+
+    /**
+     * Gets the diversity below which part of a population is restarted.
+     *
+     * @return the diversity threshold, between 0 and 1
+     */
+    public double getDiversityThreshold() {
+        return diversityThreshold;
+    }
+
+    /**
+     * Gets the fraction of a population replaced by random Mappings when it is restarted.
+     *
+     * @return the restart fraction, between 0 and 1
+     */
+    public double getRestartFraction() {
+        return restartFraction;
+    }
+
+    /**
+     * Gets the number of threads offspring may be costed on.
+     *
+     * @return the number of evaluation threads
+     */
+    public int getEvalThreads() {
+        return evalThreads;
+    }
+
+    /**
+     * A builder for EvolutionOptions. Every parameter starts at the same default as the
+     * duty scheduler's configuration.
+     */
+    public static class OptionsBuilder {
+
+        private int populationSize = 30;
+        private int iterations = 1000;
+        private int runs = 20;
+        private int seedAttempts = 1000;
+        private boolean steadyState = false;
+        private Selection selection = new TruncationSelection();
+        private double diversityThreshold = 0.02;
+        private double restartFraction = 0.5;
+        private int evalThreads = 1;
+
+        /**
+         * Creates an OptionsBuilder with every parameter at its default.
+         */
+        public OptionsBuilder() {
+        }
+
+        /**
+         * Creates an OptionsBuilder with every parameter copied from existing options, so that
+         * a few of them can be changed.
+         * @param base The options to start from
+         */
+        public OptionsBuilder(EvolutionOptions base) {
+            populationSize = base.populationSize;
+            iterations = base.iterations;
+            runs = base.runs;
+            seedAttempts = base.seedAttempts;
+            steadyState = base.steadyState;
+            selection = base.selection;
+            diversityThreshold = base.diversityThreshold;
+            restartFraction = base.restartFraction;
+            evalThreads = base.evalThreads;
+        }
+
+        /**
+         * Sets the number of Mappings in a population.
+         * @param size A positive, even number
+         * @return this builder
+         */
+        public OptionsBuilder setPopulationSize(int size) {
+            if (size <= 0 || size % 2 == 1) {
+                throw new IllegalArgumentException("The population size must be positive and "
+                                                    + "even.");
+            }
+            populationSize = size;
+            return this;
+        }
+
+        /**
+         * Sets the number of iterations each population is evolved for.
+         * @param count A positive number
+         * @return this builder
+         */
+        public OptionsBuilder setIterations(int count) {
+            iterations = positive("The number of iterations", count);
+            return this;
+        }
+
+        /**
+         * Sets the number of independent populations evolved.
+         * @param count A positive number
+         * @return this builder
+         */
+        public OptionsBuilder setRuns(int count) {
+            runs = positive("The number of runs", count);
+            return this;
+        }
+
+        /**
+         * Sets the number of failed attempts allowed in a row while seeding a population.
+         * @param count A positive number
+         * @return this builder
+         */
+        public OptionsBuilder setSeedAttempts(int count) {
+            seedAttempts = positive("The number of seed attempts", count);
+            return this;
+        }
+
+        /**
+         * Sets whether evolution replaces one Mapping at a time.
+         * @param steady true for steady-state evolution
+         * @return this builder
+         */
+        public OptionsBuilder setSteadyState(boolean steady) {
+            steadyState = steady;
+            return this;
+        }
+
+        /**
+         * Sets the parent Selection strategy.
+         * @param strategy The Selection to use, which must be safe to share between runs
+         * @return this builder
+         */
+        public OptionsBuilder setSelection(Selection strategy) {
+            if (strategy == null) {
+                throw new NullPointerException("Cannot use a null Selection.");
+            }
+            selection = strategy;
+            return this;
+        }
+
+        /**
+         * Sets the parent Selection strategy by name.
+         * @param name     One of truncation, tournament, rank or sus
+         * @param pressure The tournament size for tournament selection, or the selection
+         *                 pressure for rank and sus selection. Unused for truncation selection.
+         * @return this builder
+         */
+        public OptionsBuilder setSelection(String name, double pressure) {
+            switch (name) {
+                case "tournament":
+                    return setSelection(new TournamentSelection((int) Math.round(pressure)));
+                case "rank":
+                    return setSelection(new RankSelection(pressure));
+                case "sus":
+                    return setSelection(new UniversalSampling(pressure));
+                case "truncation":
+                    return setSelection(new TruncationSelection());
+                default:
+                    throw new IllegalArgumentException(String.format("Unknown selection %s.",
+                                                                     name));
+            }
+        }
+
+        /**
+         * Sets the diversity below which part of a population is restarted.
+         * @param threshold A fraction between 0 and 1, inclusive
+         * @return this builder
+         */
+        public OptionsBuilder setDiversityThreshold(double threshold) {
+            if (threshold < 0 || threshold > 1) {
+                throw new IllegalArgumentException("The diversity threshold must be between 0 "
+                                                    + "and 1.");
+            }
+            diversityThreshold = threshold;
+            return this;
+        }
+
+        /**
+         * Sets the fraction of a population replaced when it is restarted.
+         * @param fraction A fraction between 0 and 1, exclusive
+         * @return this builder
+         */
+        public OptionsBuilder setRestartFraction(double fraction) {
+            if (fraction <= 0 || fraction >= 1) {
+                throw new IllegalArgumentException("The restart fraction must be between 0 and "
+                                                    + "1, exclusive.");
+            }
+            restartFraction = fraction;
+            return this;
+        }
+
+        /**
+         * Sets the number of threads offspring may be costed on.
+         * @param threads A positive number
+         * @return this builder
+         */
+        public OptionsBuilder setEvalThreads(int threads) {
+            evalThreads = positive("The number of evaluation threads", threads);
+            return this;
+        }
+
+        /**
+         * Builds a new immutable EvolutionOptions from this builder.
+         * @return a new EvolutionOptions
+         */
+        public EvolutionOptions build() {
+            return new EvolutionOptions(this);
+        }
+
+        /**
+         * Checks that a parameter is positive.
+         * @param what  A description of the parameter
+         * @param value The value to check
+         * @return the value
+         */
+        private static int positive(String what, int value) {
+            if (value <= 0) {
+                throw new IllegalArgumentException(what + " must be positive.");
+            }
+            return value;
+        }
+
+    }
+
+}
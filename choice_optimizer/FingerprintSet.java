@@ -0,0 +1,186 @@
+package choice_optimizer;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *  
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it 
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the 
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *  
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.Arrays;
+
+/**
+ * A set of fingerprints stored as primitive longs in an open-addressed table with linear
+ * probing, so that adding, removing and checking fingerprints never boxes them or allocates
+ * entries. The table only grows when it becomes half full, so a set that is cleared and
+ * refilled to the same size keeps reusing its storage.
+ *
+ * @author Matthew Mussomele
+ */
+public class FingerprintSet {
+
+    private static final long EMPTY = 0L;
+    private static final long MIX = 0x9E3779B97F4A7C15L;
+
+    private long[] table;
+    private int mask;
+    private int size;
+    private boolean hasEmpty;
+
+    /**
+     * Creates an empty FingerprintSet.
+     *
+     * @param  expected The number of fingerprints the set should hold without growing
+     */
+    public FingerprintSet(int expected) {
+        int capacity = 4;
+        while (capacity < 2 * expected) {
+            capacity *= 2;
+        }
+        table = new long[capacity];
+        mask = capacity - 1;
+        size = 0;
+        hasEmpty = false;
+    }
+
+    /**
+     * Checks if a fingerprint is in this set.
+     *
+     * @param  print The fingerprint to look for
+     * @return       true if the fingerprint is held
+     */
+    public boolean contains(long print) {
+        if (print == EMPTY) {
+            return hasEmpty;
+        }
+        for (int slot = slotOf(print); table[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (table[slot] == print) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds a fingerprint to this set.
+     *
+     * @param  print The fingerprint to add
+     * @return       true if the fingerprint was not already held
+     */
+    public boolean add(long print) {
+        if (print == EMPTY) {
+            boolean added = !hasEmpty;
+            hasEmpty = true;
+            size += added ? 1 : 0;
+            return added;
+        }
+        int slot = slotOf(print);
+        while (table[slot] != EMPTY) {
+            if (table[slot] == print) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = print;
+        size += 1;
+        if (2 * size > table.length) {
+            grow();
+        }
+        return true;
+    }
+
+    /**
+     * Removes a fingerprint from this set, moving back the fingerprints probed past it so that
+     * no tombstones are left behind.
+     *
+     * @param  print The fingerprint to remove
+     * @return       true if the fingerprint was held
+     */
+    public boolean remove(long print) {
+        if (print == EMPTY) {
+            boolean removed = hasEmpty;
+            hasEmpty = false;
+            size -= removed ? 1 : 0;
+            return removed;
+        }
+        int slot = slotOf(print);
+        while (table[slot] != print) {
+            if (table[slot] == EMPTY) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int hole = slot;
+        for (int next = (hole + 1) & mask; table[next] != EMPTY; next = (next + 1) & mask) {
+            int home = slotOf(table[next]);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                table[hole] = table[next];
+                hole = next;
+            }
+        }
+        table[hole] = EMPTY;
+        size -= 1;
+        return true;
+    }
+
+    /**
+     * Removes every fingerprint from this set, keeping its storage.
+     */
+    public void clear() {
+        Arrays.fill(table, EMPTY);
+        size = 0;
+        hasEmpty = false;
+    }
+
+    /**
+     * Gets the number of fingerprints in this set.
+     *
+     * @return The number of fingerprints held
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the slot a fingerprint is probed from, spreading its bits first since fingerprints
+     * that differ only in their high bits would otherwise collide.
+     *
+     * @param  print The fingerprint
+     * @return       The index of the first slot to probe
+     */
+    private int slotOf(long print) {
+        long mixed = print * MIX;
+        return (int) (mixed ^ (mixed >>> 32)) & mask;
+    }
+
+    /**
+     * Doubles the table, reinserting every fingerprint.
+     */
+    private void grow() {
+        long[] old = table;
+        table = new long[old.length * 2];
+        mask = table.length - 1;
+        for (long print : old) {
+            if (print != EMPTY) {
+                int slot = slotOf(print);
+                while (table[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = print;
+            }
+        }
+    }
+
+}
@@ -26,6 +26,14 @@ package choice_optimizer;
  */
 public interface Item extends Comparable<Item> {
 
+    /**
+     * Gets the index of this Item within the problem it belongs to, which Choosers use to keep
+     * per-Item data in arrays and bitsets.
+     * 
+     * @return the index of this Item, or -1 if it has none
+     */
+    int ordinal();
+
     @Override String toString();
     @Override int hashCode();
     @Override int compareTo(Item other);
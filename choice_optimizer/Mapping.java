@@ -21,6 +21,7 @@ package choice_optimizer;
 
 import java.util.Collection;
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * An interface for describing a mapping used in a choice optimization algorithm.
@@ -38,13 +39,77 @@ public interface Mapping<K extends Chooser, V extends Item> extends Comparable<M
      */
     Collection<V> getAssignments(K chooser);
 
+    /**
+     * Gets a read-only view of the items assigned to the given Chooser, without copying them.
+     * 
+     * @param chooser The chooser instance to get the assignments of
+     * @return An unmodifiable List of the given Chooser's assignments
+     */
+    List<V> viewAssignments(K chooser);
+
     /**
      * Returns a defensively mutated copy of this Mapping. For use with genetic evolution.
      * 
-     * @return A new, mutated version of this mapping
+     * @return A new, mutated version of this mapping, or null if no valid mutation was found
      */
     Mapping<K, V> mutate();
 
+    /**
+     * Returns a copy of this Mapping that can be changed in place by moves without affecting
+     * this one. Moves change the cost of a Mapping, so they should only be made on copies that
+     * are not held in sorted or hashed collections.
+     *
+     * @return A copy of this Mapping
+     */
+    Mapping<K, V> copy();
+
+    /**
+     * Gets the change in cost that exchanging two Items between two Choosers would make,
+     * without making the exchange.
+     *
+     * @param  first      The Chooser assigned firstItem
+     * @param  firstItem  An Item assigned to first
+     * @param  second     The Chooser assigned secondItem
+     * @param  secondItem An Item assigned to second
+     * @return            The cost after the exchange minus the current cost
+     */
+    double swapDelta(K first, V firstItem, K second, V secondItem);
+
+    /**
+     * Exchanges two Items between two Choosers in place.
+     *
+     * @param first      The Chooser assigned firstItem
+     * @param firstItem  An Item assigned to first
+     * @param second     The Chooser assigned secondItem
+     * @param secondItem An Item assigned to second
+     */
+    void swap(K first, V firstItem, K second, V secondItem);
+
+    /**
+     * Gets the change in cost that moving an Item from one Chooser to another would make,
+     * without moving it.
+     *
+     * @param  from The Chooser assigned the Item
+     * @param  item An Item assigned to from
+     * @param  to   The Chooser to move the Item to
+     * @return      The cost after the move minus the current cost
+     */
+    double transferDelta(K from, V item, K to);
+
+    /**
+     * Moves an Item from one Chooser to another in place.
+     *
+     * @param from The Chooser assigned the Item
+     * @param item An Item assigned to from
+     * @param to   The Chooser to move the Item to
+     */
+    void transfer(K from, V item, K to);
+
+    /**
+     * Reverts the last swap or transfer made on this Mapping.
+     */
+    void undo();
+
     /**
      * Gets the cost of this Mapping.
      * 
@@ -52,6 +117,14 @@ public interface Mapping<K extends Chooser, V extends Item> extends Comparable<M
      */
     double getCost();
 
+    /**
+     * Gets a fingerprint of the assignments of this Mapping without costing it. Mappings that
+     * assign the same Items to each Chooser, in any order, have equal fingerprints.
+     *
+     * @return a 64 bit fingerprint of the assignments
+     */
+    long fingerprint();
+
     @Override boolean equals(Object other);
     @Override int compareTo(Mapping<K, V> other);
     @Override int hashCode();
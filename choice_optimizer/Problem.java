@@ -0,0 +1,67 @@
+package choice_optimizer;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *  
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it 
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the 
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *  
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+import java.util.List;
+import java.util.Random;
+
+/**
+ * An interface describing a choice optimization problem that an EvolutionEngine can solve. A
+ * Problem creates the Mappings populations are seeded with, such as Mappings around a known good
+ * solution followed by random ones; the Mappings mutate and cost themselves. A Problem shared by
+ * engines running at the same time must be safe to use from several threads.
+ *
+ * @author Matthew Mussomele
+ */
+public interface Problem<C extends Chooser, I extends Item> {
+
+    /**
+     * Creates a random valid Mapping of this Problem.
+     *
+     * @param  gen The source of randomness to use
+     * @return     A random Mapping, or null if this attempt failed and should be retried
+     */
+    Mapping<C, I> randomMapping(Random gen);
+
+    /**
+     * Creates the Mappings a new population starts from before it is filled with random ones.
+     *
+     * @param  count The most Mappings to create
+     * @param  gen   The source of randomness to use
+     * @return       The seed Mappings, which may be empty
+     */
+    List<Mapping<C, I>> seedMappings(int count, Random gen);
+
+    /**
+     * Counts the Items two Mappings of this Problem assign to different Choosers.
+     *
+     * @param  first  A Mapping of this Problem
+     * @param  second Another Mapping of this Problem
+     * @return        The number of Items whose Choosers differ
+     */
+    int distance(Mapping<C, I> first, Mapping<C, I> second);
+
+    /**
+     * Gets the number of Items this Problem assigns.
+     *
+     * @return the number of Items
+     */
+    int itemCount();
+
+}
@@ -0,0 +1,80 @@
+package choice_optimizer;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *  
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it 
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the 
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *  
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.Random;
+
+/**
+ * Selects parents with a probability that falls linearly with their rank. The best member is
+ * pressure times as likely to be picked as an average member and the worst is 2 - pressure
+ * times as likely. Picks invert the cumulative distribution directly, so each costs O(1).
+ *
+ * @author Matthew Mussomele
+ */
+public class RankSelection extends AbstractSelection {
+
+    private static final double MIN_PRESSURE = 1.0;
+    private static final double MAX_PRESSURE = 2.0;
+
+    protected double pressure;
+
+    /**
+     * Creates a RankSelection.
+     *
+     * @param  pressure The selection pressure, between 1 (uniform) and 2 (the chance of
+     *                  selection falls to zero at the worst rank), inclusive.
+     */
+    public RankSelection(double pressure) {
+        if (pressure < MIN_PRESSURE || pressure > MAX_PRESSURE) {
+            throw new IllegalArgumentException("Rank selection pressure must be within [1, 2].");
+        }
+        this.pressure = pressure;
+    }
+
+    /**
+     * Picks a single parent.
+     *
+     * @param  populationSize The number of members in the population
+     * @param  gen            The source of randomness to use
+     * @return                The rank of the selected parent
+     */
+    public int select(int populationSize, Random gen) {
+        return rankAt(gen.nextDouble(), populationSize);
+    }
+
+    /**
+     * Finds the rank whose share of the cumulative selection probability contains u.
+     *
+     * @param  u              A point in [0, 1)
+     * @param  populationSize The number of members in the population
+     * @return                The rank at that point
+     */
+    protected int rankAt(double u, int populationSize) {
+        double position;
+        if (pressure == MIN_PRESSURE) {
+            position = u;
+        } else {
+            double slope = pressure - 1;
+            position = (pressure - Math.sqrt(pressure * pressure - 4 * slope * u)) / (2 * slope);
+        }
+        return Math.min((int) (position * populationSize), populationSize - 1);
+    }
+
+}
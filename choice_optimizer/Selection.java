@@ -0,0 +1,52 @@
+package choice_optimizer;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *  
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it 
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the 
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *  
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.Random;
+
+/**
+ * An interface describing parent selection in a genetic algorithm. Populations are expected to
+ * be sorted by increasing cost, so a Selection only works with ranks, where rank 0 is the best
+ * member of the population.
+ *
+ * @author Matthew Mussomele
+ */
+public interface Selection {
+
+    /**
+     * Picks the rank of a single parent.
+     *
+     * @param populationSize The number of members in the population
+     * @param gen            The source of randomness to use
+     * @return The rank of the selected parent
+     */
+    int select(int populationSize, Random gen);
+
+    /**
+     * Picks the ranks of several parents at once.
+     *
+     * @param populationSize The number of members in the population
+     * @param ranks          The array to write the selected ranks into
+     * @param count          The number of parents to select
+     * @param gen            The source of randomness to use
+     */
+    void select(int populationSize, int[] ranks, int count, Random gen);
+
+}
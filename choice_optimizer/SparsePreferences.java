@@ -0,0 +1,157 @@
+package choice_optimizer;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *  
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it 
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the 
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *  
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An immutable, compressed store of a Chooser's preference weights. The weights of Items with an
+ * ordinal are kept as one row of a compressed sparse matrix: parallel primitive arrays of the
+ * ranked ordinals, in increasing order, and their weights, looked up by binary search. Items
+ * without an ordinal fall back to a map. Any Item that was not ranked gets the default weight, so
+ * a Chooser that only cares about a few of many Items costs memory in proportion to those few.
+ *
+ * @author Matthew Mussomele
+ */
+public final class SparsePreferences {
+
+    private final int[] ordinals;
+    private final int[] weights;
+    private final HashMap<Item, Integer> unindexed;
+    private final int defaultWeight;
+
+    /**
+     * Creates a SparsePreferences from a map of Items to weights.
+     *
+     * @param  prefs         The weight of every ranked Item
+     * @param  defaultWeight The weight of every Item that is not ranked
+     */
+    public SparsePreferences(Map<Item, Integer> prefs, int defaultWeight) {
+        this.defaultWeight = defaultWeight;
+        int count = 0;
+        for (Item item : prefs.keySet()) {
+            if (item.ordinal() >= 0) {
+                count += 1;
+            }
+        }
+        long[] packed = new long[count];
+        unindexed = new HashMap<Item, Integer>(Math.max(1, (prefs.size() - count) * 2));
+        count = 0;
+        for (Map.Entry<Item, Integer> entry : prefs.entrySet()) {
+            int ordinal = entry.getKey().ordinal();
+            if (ordinal >= 0) {
+                packed[count] = ((long) ordinal << Integer.SIZE)
+                                | (entry.getValue() & 0xFFFFFFFFL);
+                count += 1;
+            } else {
+                unindexed.put(entry.getKey(), entry.getValue());
+            }
+        }
+        Arrays.sort(packed);
+        ordinals = new int[count];
+        weights = new int[count];
+        for (int i = 0; i < count; i += 1) {
+            ordinals[i] = (int) (packed[i] >>> Integer.SIZE);
+            weights[i] = (int) packed[i];
+            if (i > 0 && ordinals[i] == ordinals[i - 1]) {
+                throw new IllegalArgumentException(String.format("Two Items have ordinal %d.",
+                                                                 ordinals[i]));
+            }
+        }
+    }
+
+    /**
+     * Gets the weight of an Item.
+     *
+     * @param  item The Item to look up
+     * @return      The Item's weight, or the default weight if it was not ranked
+     */
+    public int weight(Item item) {
+        int ordinal = item.ordinal();
+        if (ordinal >= 0) {
+            int index = Arrays.binarySearch(ordinals, ordinal);
+            return index >= 0 ? weights[index] : defaultWeight;
+        }
+        Integer weight = unindexed.get(item);
+        return weight == null ? defaultWeight : weight;
+    }
+
+    /**
+     * Checks if an Item was given a weight of its own.
+     *
+     * @param  item The Item to look up
+     * @return      true if the Item was ranked
+     */
+    public boolean ranks(Item item) {
+        int ordinal = item.ordinal();
+        return ordinal >= 0 ? Arrays.binarySearch(ordinals, ordinal) >= 0
+                            : unindexed.containsKey(item);
+    }
+
+    /**
+     * Gets the number of ranked Items.
+     *
+     * @return the number of Items with a weight of their own
+     */
+    public int size() {
+        return ordinals.length + unindexed.size();
+    }
+
+    /**
+     * Gets the weight of Items that were not ranked.
+     *
+     * @return the default weight
+     */
+    public int getDefaultWeight() {
+        return defaultWeight;
+    }
+
+    /**
+     * Compares this to another Object for equivalency.
+     *
+     * @param  other The other Object to be compared against
+     * @return       true if the other Object is a SparsePreferences giving every Item the same
+     *               weight
+     */
+    @Override public boolean equals(Object other) {
+        if (other instanceof SparsePreferences) {
+            SparsePreferences o = (SparsePreferences) other;
+            return defaultWeight == o.defaultWeight && Arrays.equals(ordinals, o.ordinals)
+                    && Arrays.equals(weights, o.weights) && unindexed.equals(o.unindexed);
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Gets an integer representation of these preferences for hashing.
+     *
+     * @return a hash of the ranked Items and their weights
+     */
+    @Override public int hashCode() {
+        int hash = Arrays.hashCode(ordinals);
+        hash = 31 * hash + Arrays.hashCode(weights);
+        hash = 31 * hash + unindexed.hashCode();
+        return 31 * hash + defaultWeight;
+    }
+
+}
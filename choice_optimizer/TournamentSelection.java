@@ -0,0 +1,62 @@
+package choice_optimizer;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *  
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it 
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the 
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *  
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.Random;
+
+/**
+ * Selects the best of k uniformly random members of a population. Since the population is
+ * sorted, the winner is just the smallest rank drawn, so each pick costs O(k).
+ *
+ * @author Matthew Mussomele
+ */
+public class TournamentSelection extends AbstractSelection {
+
+    private int size;
+
+    /**
+     * Creates a TournamentSelection.
+     *
+     * @param  size The number of members in each tournament. Larger values raise the selection
+     *              pressure. Must be at least 1.
+     */
+    public TournamentSelection(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Tournaments must have at least one member.");
+        }
+        this.size = size;
+    }
+
+    /**
+     * Picks the winner of a single tournament.
+     *
+     * @param  populationSize The number of members in the population
+     * @param  gen            The source of randomness to use
+     * @return                The rank of the selected parent
+     */
+    public int select(int populationSize, Random gen) {
+        int best = gen.nextInt(populationSize);
+        for (int i = 1; i < size; i += 1) {
+            best = Math.min(best, gen.nextInt(populationSize));
+        }
+        return best;
+    }
+
+}
@@ -0,0 +1,58 @@
+package choice_optimizer;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *  
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it 
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the 
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *  
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.Random;
+
+/**
+ * Selects parents from the better half of a population only. Selecting as many parents as
+ * there are members in the better half picks each of them exactly once.
+ *
+ * @author Matthew Mussomele
+ */
+public class TruncationSelection implements Selection {
+
+    /**
+     * Picks a uniformly random rank from the better half of the population.
+     *
+     * @param  populationSize The number of members in the population
+     * @param  gen            The source of randomness to use
+     * @return                The rank of the selected parent
+     */
+    public int select(int populationSize, Random gen) {
+        return gen.nextInt(Math.max(populationSize / 2, 1));
+    }
+
+    /**
+     * Picks the ranks of the better half in order, wrapping around if more are needed.
+     *
+     * @param populationSize The number of members in the population
+     * @param ranks          The array to write the selected ranks into
+     * @param count          The number of parents to select
+     * @param gen            The source of randomness to use
+     */
+    public void select(int populationSize, int[] ranks, int count, Random gen) {
+        int half = Math.max(populationSize / 2, 1);
+        for (int i = 0; i < count; i += 1) {
+            ranks[i] = i % half;
+        }
+    }
+
+}
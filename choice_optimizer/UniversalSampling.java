@@ -0,0 +1,58 @@
+package choice_optimizer;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *  
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it 
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the 
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *  
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.Random;
+
+/**
+ * Stochastic universal sampling over linear rank probabilities. Several parents are selected
+ * with a single random offset and evenly spaced pointers, so the number of times each member is
+ * picked stays within one of its expected value.
+ *
+ * @author Matthew Mussomele
+ */
+public class UniversalSampling extends RankSelection {
+
+    /**
+     * Creates a UniversalSampling selection.
+     *
+     * @param  pressure The selection pressure, between 1 and 2 inclusive, as in RankSelection
+     */
+    public UniversalSampling(double pressure) {
+        super(pressure);
+    }
+
+    /**
+     * Picks the ranks of several parents using evenly spaced pointers.
+     *
+     * @param populationSize The number of members in the population
+     * @param ranks          The array to write the selected ranks into
+     * @param count          The number of parents to select
+     * @param gen            The source of randomness to use
+     */
+    @Override public void select(int populationSize, int[] ranks, int count, Random gen) {
+        double spacing = 1.0 / count;
+        double offset = gen.nextDouble() * spacing;
+        for (int i = 0; i < count; i += 1) {
+            ranks[i] = rankAt(offset + i * spacing, populationSize);
+        }
+    }
+
+}
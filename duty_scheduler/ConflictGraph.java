@@ -0,0 +1,179 @@
+package duty_scheduler;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A precomputed graph of which Duty instances fall within the adjacency window of each other,
+ * stored as sorted arrays of neighbouring duty ordinals. It lets the adjacency penalty of an RA's
+ * assignments be counted from the duties they hold rather than from the order they were added
+ * in, and without any date arithmetic once the graph is built.
+ *
+ * @author Matthew Mussomele
+ */
+public class ConflictGraph {
+
+    static final int WINDOW_DAYS = 1;
+
+    private static final int WORD_SHIFT = 6;
+
+    private final int[][] neighbours;
+    private final ThreadLocal<long[]> scratch;
+
+    /**
+     * Creates the ConflictGraph of the given Duty instances, which must all have distinct
+     * ordinals.
+     *
+     * @param  duties The Duty instances being scheduled
+     */
+    public ConflictGraph(Collection<Duty> duties) {
+        Duty[] byDay = duties.toArray(new Duty[duties.size()]);
+        Arrays.sort(byDay);
+        int size = 0;
+        for (Duty duty : byDay) {
+            if (duty.ordinal() < 0) {
+                throw new IllegalArgumentException(String.format("%s has no ordinal.", duty));
+            }
+            size = Math.max(size, duty.ordinal() + 1);
+        }
+        int[] degrees = new int[size];
+        for (int i = 0; i < byDay.length; i += 1) {
+            for (int j = i + 1; j < byDay.length && conflict(byDay[i], byDay[j]); j += 1) {
+                degrees[byDay[i].ordinal()] += 1;
+                degrees[byDay[j].ordinal()] += 1;
+            }
+        }
+        neighbours = new int[size][];
+        for (int i = 0; i < size; i += 1) {
+            neighbours[i] = new int[degrees[i]];
+            degrees[i] = 0;
+        }
+        for (int i = 0; i < byDay.length; i += 1) {
+            int first = byDay[i].ordinal();
+            for (int j = i + 1; j < byDay.length && conflict(byDay[i], byDay[j]); j += 1) {
+                int second = byDay[j].ordinal();
+                neighbours[first][degrees[first]] = second;
+                degrees[first] += 1;
+                neighbours[second][degrees[second]] = first;
+                degrees[second] += 1;
+            }
+        }
+        for (int[] adjacent : neighbours) {
+            Arrays.sort(adjacent);
+        }
+        final int words = (size >>> WORD_SHIFT) + 1;
+        scratch = new ThreadLocal<long[]>() {
+            @Override protected long[] initialValue() {
+                return new long[words];
+            }
+        };
+    }
+
+    /**
+     * Checks if a Duty is part of this ConflictGraph.
+     *
+     * @param  duty The Duty to check
+     * @return      true if the Duty's ordinal is indexed by this graph
+     */
+    public boolean covers(Duty duty) {
+        return duty.ordinal() >= 0 && duty.ordinal() < neighbours.length;
+    }
+
+    /**
+     * Gets the ordinals of the Duty instances within the adjacency window of a Duty.
+     *
+     * @param  duty A Duty covered by this graph
+     * @return      The neighbouring ordinals in increasing order, which must not be changed
+     */
+    public int[] neighbours(Duty duty) {
+        return neighbours[duty.ordinal()];
+    }
+
+    /**
+     * Counts the pairs of a list of Duty instances that fall within the adjacency window of each
+     * other. The order of the list does not matter.
+     *
+     * @param  duties The Duty instances assigned to one RA
+     * @return        The number of conflicting pairs
+     */
+    public int conflicts(List<Duty> duties) {
+        for (int i = 0; i < duties.size(); i += 1) {
+            if (!covers(duties.get(i))) {
+                return sweep(duties);
+            }
+        }
+        long[] held = scratch.get();
+        boolean repeated = false;
+        for (int i = 0; i < duties.size(); i += 1) {
+            int ordinal = duties.get(i).ordinal();
+            repeated |= (held[ordinal >>> WORD_SHIFT] & (1L << ordinal)) != 0;
+            held[ordinal >>> WORD_SHIFT] |= 1L << ordinal;
+        }
+        int twice = 0;
+        for (int i = 0; i < duties.size() && !repeated; i += 1) {
+            for (int neighbour : neighbours[duties.get(i).ordinal()]) {
+                if ((held[neighbour >>> WORD_SHIFT] & (1L << neighbour)) != 0) {
+                    twice += 1;
+                }
+            }
+        }
+        for (int i = 0; i < duties.size(); i += 1) {
+            held[duties.get(i).ordinal() >>> WORD_SHIFT] = 0;
+        }
+        return repeated ? sweep(duties) : twice / 2;
+    }
+
+    /**
+     * Counts the pairs of a list of Duty instances that fall within the adjacency window of each
+     * other by sorting their day numbers, for Duty instances that are not part of a graph.
+     *
+     * @param  duties The Duty instances assigned to one RA
+     * @return        The number of conflicting pairs
+     */
+    public static int sweep(List<Duty> duties) {
+        int[] days = new int[duties.size()];
+        for (int i = 0; i < days.length; i += 1) {
+            days[i] = duties.get(i).getDayNumber();
+        }
+        Arrays.sort(days);
+        int count = 0;
+        for (int i = 0; i < days.length; i += 1) {
+            for (int j = i + 1; j < days.length && days[j] - days[i] <= WINDOW_DAYS; j += 1) {
+                count += 1;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks if two Duty instances fall within the adjacency window of each other.
+     *
+     * @param  earlier A Duty
+     * @param  later   A Duty on the same day as or after earlier
+     * @return         true if they are at most WINDOW_DAYS days apart
+     */
+    private static boolean conflict(Duty earlier, Duty later) {
+        return later.getDayNumber() - earlier.getDayNumber() <= WINDOW_DAYS;
+    }
+
+}
@@ -0,0 +1,190 @@
+package duty_scheduler;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded cache of the costs of RAs' assignment lists, shared by the Schedules of one
+ * problem. Mutation leaves most RAs' assignments unchanged, so the same assignments are costed
+ * again and again.
+ * Entries are keyed by the RA instance and a fingerprint of its assignment list, and a hit is
+ * confirmed against the cached list itself, so a cached cost is never given for the wrong
+ * assignments. The cache is set-associative with CLOCK eviction inside each set, and each set is
+ * locked separately so Schedules can be built from several threads at once.
+ *
+ * @author Matthew Mussomele
+ */
+public class CostCache {
+
+    private static final int WAYS = 4;
+    private static final long FINGERPRINT_SEED = 0x9E3779B97F4A7C15L;
+    private static final long FINGERPRINT_MULTIPLIER = 0xBF58476D1CE4E5B9L;
+
+    private final RA[] ras;
+    private final ArrayList<?>[] lists;
+    private final long[] fingerprints;
+    private final double[] costs;
+    private final boolean[] referenced;
+    private final int[] hands;
+    private final Object[] locks;
+    private final int setMask;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+
+    /**
+     * Creates an empty CostCache.
+     *
+     * @param  capacity The most entries to hold, rounded up to a power of two of at least four
+     */
+    public CostCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The cost cache must hold at least one entry.");
+        }
+        int sets = 1;
+        while (sets * WAYS < capacity) {
+            sets *= 2;
+        }
+        ras = new RA[sets * WAYS];
+        lists = new ArrayList<?>[sets * WAYS];
+        fingerprints = new long[sets * WAYS];
+        costs = new double[sets * WAYS];
+        referenced = new boolean[sets * WAYS];
+        hands = new int[sets];
+        locks = new Object[sets];
+        for (int i = 0; i < sets; i += 1) {
+            locks[i] = new Object();
+        }
+        setMask = sets - 1;
+        hits = new AtomicLong();
+        misses = new AtomicLong();
+    }
+
+    /**
+     * Computes an order-dependent fingerprint of an assignment list.
+     *
+     * @param  duties The assignments to fingerprint
+     * @return        A 64 bit fingerprint of the list
+     */
+    public static long fingerprint(ArrayList<Duty> duties) {
+        long hash = FINGERPRINT_SEED;
+        for (int i = 0; i < duties.size(); i += 1) {
+            hash = (hash ^ duties.get(i).hashCode()) * FINGERPRINT_MULTIPLIER;
+            hash ^= hash >>> 31;
+        }
+        return hash ^ duties.size();
+    }
+
+    /**
+     * Looks up the cost of an RA's assignments.
+     *
+     * @param  ra          The RA the Duty instances are assigned to
+     * @param  duties      The RA's assignments
+     * @param  fingerprint The fingerprint of duties
+     * @return             The cached cost, or NaN if it is not cached
+     */
+    public double get(RA ra, ArrayList<Duty> duties, long fingerprint) {
+        int set = setOf(ra, fingerprint);
+        synchronized (locks[set]) {
+            for (int i = set * WAYS; i < (set + 1) * WAYS; i += 1) {
+                if (ras[i] == ra && fingerprints[i] == fingerprint
+                        && (lists[i] == duties || duties.equals(lists[i]))) {
+                    referenced[i] = true;
+                    hits.incrementAndGet();
+                    return costs[i];
+                }
+            }
+        }
+        misses.incrementAndGet();
+        return Double.NaN;
+    }
+
+    /**
+     * Caches the cost of an RA's assignments, evicting an entry of the same set that has not
+     * been used since the set's clock hand last passed it.
+     *
+     * @param ra          The RA the Duty instances are assigned to
+     * @param duties      The RA's assignments, which must not be changed afterwards
+     * @param fingerprint The fingerprint of duties
+     * @param cost        The cost of the assignments
+     */
+    public void put(RA ra, ArrayList<Duty> duties, long fingerprint, double cost) {
+        int set = setOf(ra, fingerprint);
+        synchronized (locks[set]) {
+            int victim = -1;
+            while (victim < 0) {
+                int i = set * WAYS + hands[set];
+                hands[set] = (hands[set] + 1) % WAYS;
+                if (ras[i] == null || !referenced[i]) {
+                    victim = i;
+                } else {
+                    referenced[i] = false;
+                }
+            }
+            ras[victim] = ra;
+            lists[victim] = duties;
+            fingerprints[victim] = fingerprint;
+            costs[victim] = cost;
+            referenced[victim] = false;
+        }
+    }
+
+    /**
+     * Gets the number of lookups that found a cached cost.
+     *
+     * @return the number of cache hits so far
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of lookups that did not find a cached cost.
+     *
+     * @return the number of cache misses so far
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the fraction of lookups that found a cached cost.
+     *
+     * @return the hit rate, or 0 if there have been no lookups
+     */
+    public double hitRate() {
+        long total = getHits() + getMisses();
+        return total == 0 ? 0.0 : (double) getHits() / total;
+    }
+
+    /**
+     * Picks the set an entry belongs to.
+     *
+     * @param  ra          The RA of the entry
+     * @param  fingerprint The fingerprint of the entry's assignments
+     * @return             The index of the set
+     */
+    private int setOf(RA ra, long fingerprint) {
+        long mixed = fingerprint ^ (System.identityHashCode(ra) * FINGERPRINT_SEED);
+        return (int) (mixed ^ (mixed >>> 32)) & setMask;
+    }
+
+}
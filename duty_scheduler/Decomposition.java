@@ -0,0 +1,541 @@
+package duty_scheduler;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import choice_optimizer.EvolutionEngine;
+import choice_optimizer.EvolutionOptions;
+
+/**
+ * Solves long terms by splitting the Duty instances into consecutive time windows. Every RA is
+ * given a quota of duties in each window, the windows are scheduled independently and in
+ * parallel, and the window Schedules are stitched back together. Since the adjacency penalty is
+ * the only cost that crosses a window boundary, a final repair pass swaps duties near each
+ * boundary while that lowers the cost of the full Schedule.
+ *
+ * @author Matthew Mussomele
+ */
+public class Decomposition {
+
+    private static final double MILLIS_PER_DAY = 86400000.0;
+    private static final int BOUNDARY_DAYS = 2;
+    private static final int BALANCE_PASSES = 20;
+
+    private ArrayList<RA> raList;
+    private ArrayList<Duty> dutyList;
+    private ArrayList<ArrayList<Duty>> windows;
+    private int[][] quotas;
+    private ScheduleContext context;
+
+    /**
+     * Splits the problem of assigning the given Duty instances to the given RAs into windows.
+     *
+     * @param  raList     The RAs that need duties assigned
+     * @param  dutyList   The Duty instances to assign
+     * @param  windowDays The number of days covered by each window
+     * @param  context    The rules every window and the stitched Schedule are solved under
+     */
+    public Decomposition(ArrayList<RA> raList, ArrayList<Duty> dutyList, int windowDays,
+                         ScheduleContext context) {
+        this.raList = new ArrayList<RA>(raList);
+        this.dutyList = new ArrayList<Duty>(dutyList);
+        this.context = context;
+        Collections.sort(this.dutyList);
+        windows = new ArrayList<ArrayList<Duty>>();
+        long start = this.dutyList.get(0).getTime();
+        long windowIndex = -1;
+        for (Duty duty : this.dutyList) {
+            long index = Math.round((duty.getTime() - start) / MILLIS_PER_DAY) / windowDays;
+            if (index != windowIndex) {
+                windows.add(new ArrayList<Duty>());
+                windowIndex = index;
+            }
+            windows.get(windows.size() - 1).add(duty);
+        }
+        quotas = deriveQuotas();
+    }
+
+    /**
+     * Gets the number of windows the Duty instances were split into.
+     *
+     * @return the window count
+     */
+    public int getWindowCount() {
+        return windows.size();
+    }
+
+    /**
+     * Gets the number of duties an RA must take in a window.
+     *
+     * @param  ra     The index of the RA in the RA list
+     * @param  window The index of the window
+     * @return        The RA's quota in that window
+     */
+    public int getQuota(int ra, int window) {
+        return quotas[ra][window];
+    }
+
+    /**
+     * Derives per-window quotas for every RA. A complete assignment is found by giving each Duty,
+     * in time order, to the RA with room left that is furthest behind its proportional share of
+     * the duties so far, moving already matched duties between RAs when no RA with room can take
+     * it. The assignment is then rebalanced with Duty swaps between neighbouring windows so that
+     * each RA's duties are spread over the windows in proportion to the windows' sizes. The
+     * quotas are the window counts of that assignment, so every window is guaranteed to be
+     * schedulable and each RA's quotas sum to its requiredDuties().
+     *
+     * @return a matrix of quotas indexed by RA and then by window
+     */
+    private int[][] deriveQuotas() {
+        int[][] eligible = new int[dutyList.size()][];
+        int[] quotas = new int[raList.size()];
+        int[] scratch = new int[raList.size()];
+        for (int d = 0; d < dutyList.size(); d += 1) {
+            int count = 0;
+            for (int r = 0; r < raList.size(); r += 1) {
+                if (canTake(r, dutyList.get(d))) {
+                    scratch[count] = r;
+                    count += 1;
+                }
+            }
+            eligible[d] = Arrays.copyOf(scratch, count);
+        }
+        for (int r = 0; r < raList.size(); r += 1) {
+            quotas[r] = raList.get(r).requiredDuties();
+        }
+        QuotaMatching matching = new QuotaMatching(eligible, quotas);
+        for (int d = 0; d < dutyList.size(); d += 1) {
+            int behind = furthestBehind(d, eligible[d], matching);
+            if (behind >= 0) {
+                matching.give(d, behind);
+            } else if (!matching.augment(d)) {
+                throw new IllegalArgumentException("The duties cannot be covered while giving "
+                                                   + "each RA its required number of duties.");
+            }
+        }
+        int[] owner = matching.getOwners();
+        int[] windowOf = new int[dutyList.size()];
+        int d = 0;
+        for (int w = 0; w < windows.size(); w += 1) {
+            for (int i = 0; i < windows.get(w).size(); i += 1) {
+                windowOf[d] = w;
+                d += 1;
+            }
+        }
+        int[][] counts = new int[raList.size()][windows.size()];
+        for (d = 0; d < dutyList.size(); d += 1) {
+            counts[owner[d]][windowOf[d]] += 1;
+        }
+        balance(owner, windowOf, counts);
+        return counts;
+    }
+
+    /**
+     * Finds the RA with room left that can take the Duty at index d and is furthest behind its
+     * proportional share of the first d + 1 duties.
+     *
+     * @param  d          The index of the Duty to give away
+     * @param  candidates The indices of the RAs that can take the Duty
+     * @param  matching   The duties matched so far
+     * @return            The index of the RA, or -1 if no RA with room left can take the Duty
+     */
+    private int furthestBehind(int d, int[] candidates, QuotaMatching matching) {
+        int best = -1;
+        double bestShortfall = Double.NEGATIVE_INFINITY;
+        for (int r : candidates) {
+            if (!matching.hasRoom(r)) {
+                continue;
+            }
+            int required = raList.get(r).requiredDuties();
+            double shortfall = (double) required * (d + 1) / dutyList.size() - matching.load(r);
+            if (shortfall > bestShortfall) {
+                bestShortfall = shortfall;
+                best = r;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Swaps pairs of duties between RAs and neighbouring windows while that brings each RA's
+     * window counts closer to its proportional share. The duties of each RA in each window are
+     * kept in buckets, so a swap is looked for only between RAs whose counts it improves and
+     * only among the duties of their two buckets.
+     *
+     * @param owner    The index of the RA each Duty belongs to
+     * @param windowOf The index of the window each Duty belongs to
+     * @param counts   The number of duties each RA has in each window
+     */
+    private void balance(int[] owner, int[] windowOf, int[][] counts) {
+        double[][] targets = new double[raList.size()][windows.size()];
+        for (int r = 0; r < raList.size(); r += 1) {
+            for (int w = 0; w < windows.size(); w += 1) {
+                targets[r][w] = (double) raList.get(r).requiredDuties() * windows.get(w).size()
+                                / dutyList.size();
+            }
+        }
+        ArrayList<ArrayList<Integer>> buckets
+                    = new ArrayList<ArrayList<Integer>>(raList.size() * windows.size());
+        for (int i = 0; i < raList.size() * windows.size(); i += 1) {
+            buckets.add(new ArrayList<Integer>());
+        }
+        for (int d = 0; d < dutyList.size(); d += 1) {
+            buckets.get(owner[d] * windows.size() + windowOf[d]).add(d);
+        }
+        boolean improved = true;
+        for (int pass = 0; pass < BALANCE_PASSES && improved; pass += 1) {
+            improved = false;
+            for (int v = 0; v + 1 < windows.size(); v += 1) {
+                for (int a = 0; a < raList.size(); a += 1) {
+                    for (int b = 0; b < raList.size(); b += 1) {
+                        while (a != b && improves(a, b, v, v + 1, counts, targets)
+                                && swapBetween(a, b, v, v + 1, owner, buckets)) {
+                            counts[a][v] -= 1;
+                            counts[a][v + 1] += 1;
+                            counts[b][v] += 1;
+                            counts[b][v + 1] -= 1;
+                            improved = true;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if moving a Duty of RA a from window v to RA b, and a Duty of RA b from window w to
+     * RA a, brings their window counts closer to their targets.
+     *
+     * @param  a       The index of the RA giving up a Duty in window v
+     * @param  b       The index of the RA giving up a Duty in window w
+     * @param  v       The index of the first window
+     * @param  w       The index of the second window
+     * @param  counts  The number of duties each RA has in each window
+     * @param  targets The proportional share of each RA in each window
+     * @return         true if the swap lowers the squared distance from the targets
+     */
+    private boolean improves(int a, int b, int v, int w, int[][] counts, double[][] targets) {
+        if (counts[a][v] == 0 || counts[b][w] == 0) {
+            return false;
+        }
+        double before = square(counts[a][v] - targets[a][v])
+                      + square(counts[a][w] - targets[a][w])
+                      + square(counts[b][v] - targets[b][v])
+                      + square(counts[b][w] - targets[b][w]);
+        double after = square(counts[a][v] - 1 - targets[a][v])
+                     + square(counts[a][w] + 1 - targets[a][w])
+                     + square(counts[b][v] + 1 - targets[b][v])
+                     + square(counts[b][w] - 1 - targets[b][w]);
+        return after < before;
+    }
+
+    /**
+     * Swaps a Duty of RA a in window v with a Duty of RA b in window w, if there is a pair each
+     * RA can take.
+     *
+     * @param  a       The index of the RA giving up a Duty in window v
+     * @param  b       The index of the RA giving up a Duty in window w
+     * @param  v       The index of the first window
+     * @param  w       The index of the second window
+     * @param  owner   The index of the RA each Duty belongs to
+     * @param  buckets The indices of the duties of each RA in each window, by RA and then window
+     * @return         true if a pair was swapped
+     */
+    private boolean swapBetween(int a, int b, int v, int w, int[] owner,
+                                ArrayList<ArrayList<Integer>> buckets) {
+        ArrayList<Integer> given = buckets.get(a * windows.size() + v);
+        ArrayList<Integer> taken = buckets.get(b * windows.size() + w);
+        int i = takeable(given, b);
+        int j = takeable(taken, a);
+        if (i < 0 || j < 0) {
+            return false;
+        }
+        int x = given.remove(i);
+        int y = taken.remove(j);
+        owner[x] = b;
+        owner[y] = a;
+        buckets.get(b * windows.size() + v).add(x);
+        buckets.get(a * windows.size() + w).add(y);
+        return true;
+    }
+
+    /**
+     * Finds a Duty in a bucket that an RA can take.
+     *
+     * @param  bucket The indices of the duties to look through
+     * @param  r      The index of the RA
+     * @return        The position in the bucket of such a Duty, or -1 if there is none
+     */
+    private int takeable(ArrayList<Integer> bucket, int r) {
+        for (int i = 0; i < bucket.size(); i += 1) {
+            if (canTake(r, dutyList.get(bucket.get(i)))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Squares a double.
+     *
+     * @param  x The value to square
+     * @return   x * x
+     */
+    private static double square(double x) {
+        return x * x;
+    }
+
+    /**
+     * Checks if the RA at index r may be assigned the given Duty.
+     *
+     * @param  r    The index of the RA
+     * @param  duty The Duty to check
+     * @return      true if the assignment is allowed
+     */
+    private boolean canTake(int r, Duty duty) {
+        return canTake(raList.get(r), duty);
+    }
+
+    /**
+     * Checks if an RA may be assigned the given Duty.
+     *
+     * @param  ra   The RA
+     * @param  duty The Duty to check
+     * @return      true if the assignment is allowed
+     */
+    private boolean canTake(RA ra, Duty duty) {
+        return context.allowsIllegals() || ra.eligibleItem(duty);
+    }
+
+    /**
+     * Schedules every window in parallel, stitches the results together and repairs the window
+     * boundaries.
+     *
+     * @param  options The parameters of the genetic algorithm for the whole problem, which
+     *                 each window is evolved with a share of
+     * @return         A Schedule of every RA and Duty in this problem
+     */
+    public Schedule solve(final EvolutionOptions options) {
+        int threads = Math.min(windows.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        ArrayList<Future<HashMap<RA, ArrayList<Duty>>>> results
+                                = new ArrayList<Future<HashMap<RA, ArrayList<Duty>>>>();
+        for (int w = 0; w < windows.size(); w += 1) {
+            final int window = w;
+            results.add(pool.submit(new Callable<HashMap<RA, ArrayList<Duty>>>() {
+                public HashMap<RA, ArrayList<Duty>> call() {
+                    return solveWindow(window, options);
+                }
+            }));
+        }
+        HashMap<RA, ArrayList<Duty>> stitched = new HashMap<RA, ArrayList<Duty>>(raList.size());
+        for (RA ra : raList) {
+            stitched.put(ra, new ArrayList<Duty>());
+        }
+        try {
+            for (Future<HashMap<RA, ArrayList<Duty>>> result : results) {
+                HashMap<RA, ArrayList<Duty>> part = result.get();
+                for (RA ra : raList) {
+                    if (part.containsKey(ra)) {
+                        stitched.get(ra).addAll(part.get(ra));
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            throw new RuntimeException("Interrupted while scheduling windows.", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Scheduling a window failed.", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        return repairBoundaries(stitched);
+    }
+
+    /**
+     * Scales the runs and iterations of the options down to a window's share of the duties, so
+     * that evolving every window costs about as much as evolving the whole problem once. Both
+     * are scaled by the square root of the share, since the work of an evolution grows with
+     * their product.
+     *
+     * @param  w       The index of the window
+     * @param  options The parameters of the genetic algorithm for the whole problem
+     * @return         The parameters to evolve the window with
+     */
+    private EvolutionOptions windowOptions(int w, EvolutionOptions options) {
+        double scale = Math.sqrt((double) windows.get(w).size() / dutyList.size());
+        return new EvolutionOptions.OptionsBuilder(options)
+                .setRuns((int) Math.ceil(options.getRuns() * scale))
+                .setIterations((int) Math.ceil(options.getIterations() * scale))
+                .build();
+    }
+
+    /**
+     * Schedules a single window using RAs whose required duties are their window quotas.
+     *
+     * @param  w       The index of the window
+     * @param  options The parameters of the genetic algorithm
+     * @return         The assignments of the RAs with a non-zero quota in the window
+     */
+    private HashMap<RA, ArrayList<Duty>> solveWindow(int w, EvolutionOptions options) {
+        ArrayList<Duty> duties = windows.get(w);
+        ArrayList<RA> windowRAs = new ArrayList<RA>();
+        for (int r = 0; r < raList.size(); r += 1) {
+            if (quotas[r][w] == 0) {
+                continue;
+            }
+            RA ra = raList.get(r);
+            RA.RABuilder builder = new RA.RABuilder(ra.toString(), ra.totalDuties(), quotas[r][w]);
+            builder.setDefaultWeight(ra.getDefaultWeight());
+            for (Duty duty : duties) {
+                if (!ra.eligibleItem(duty)) {
+                    builder.putPreference(duty, Scheduler.INVALID_ITEM_PRIORITY);
+                } else if (ra.ranksItem(duty)) {
+                    builder.putPreference(duty, ra.itemWeight(duty));
+                }
+            }
+            windowRAs.add(builder.build());
+        }
+        HashMap<RA, ArrayList<Duty>> assignments = new HashMap<RA, ArrayList<Duty>>();
+        if (windowRAs.size() == 1) {
+            assignments.put(windowRAs.get(0), new ArrayList<Duty>(duties));
+        } else {
+            ScheduleProblem window = new ScheduleProblem(windowRAs, duties, context);
+            Schedule best = (Schedule) new EvolutionEngine<RA, Duty>(window,
+                                                        windowOptions(w, options)).solve();
+            for (RA ra : windowRAs) {
+                assignments.put(ra, new ArrayList<Duty>(best.viewAssignments(ra)));
+            }
+        }
+        return assignments;
+    }
+
+    /**
+     * Repeatedly applies the best improving swap between two duties within BOUNDARY_DAYS of a
+     * window boundary. Only the duties at the end of one window and the start of the next are
+     * looked at, and swaps are evaluated in place on the stitched Schedule, so only the two RAs
+     * involved are recosted.
+     *
+     * @param  lists The stitched assignments of every RA
+     * @return       The repaired Schedule
+     */
+    private Schedule repairBoundaries(HashMap<RA, ArrayList<Duty>> lists) {
+        Schedule current = build(lists);
+        HashMap<Duty, RA> owners = new HashMap<Duty, RA>(dutyList.size() * 2);
+        for (RA ra : lists.keySet()) {
+            for (Duty duty : lists.get(ra)) {
+                owners.put(duty, ra);
+            }
+        }
+        for (int w = 0; w + 1 < windows.size(); w += 1) {
+            ArrayList<Duty> near = nearBoundary(w);
+            boolean improved = true;
+            while (improved) {
+                improved = false;
+                Duty bestNear = null;
+                Duty bestOther = null;
+                double bestDelta = 0;
+                for (int i = 0; i < near.size(); i += 1) {
+                    Duty one = near.get(i);
+                    RA first = owners.get(one);
+                    for (int j = i + 1; j < near.size(); j += 1) {
+                        Duty other = near.get(j);
+                        RA second = owners.get(other);
+                        if (first.equals(second) || !canTake(first, other)
+                                || !canTake(second, one)) {
+                            continue;
+                        }
+                        double delta = current.swapDelta(first, one, second, other);
+                        if (delta < bestDelta) {
+                            bestDelta = delta;
+                            bestNear = one;
+                            bestOther = other;
+                        }
+                    }
+                }
+                if (bestNear != null) {
+                    RA first = owners.get(bestNear);
+                    RA second = owners.get(bestOther);
+                    current.swap(first, bestNear, second, bestOther);
+                    owners.put(bestNear, second);
+                    owners.put(bestOther, first);
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Gets the duties within BOUNDARY_DAYS of the boundary between a window and the next one,
+     * reading only the end of the window and the start of the next.
+     *
+     * @param  w The index of the window before the boundary
+     * @return   The duties near the boundary
+     */
+    private ArrayList<Duty> nearBoundary(int w) {
+        ArrayList<Duty> before = windows.get(w);
+        ArrayList<Duty> after = windows.get(w + 1);
+        long boundary = after.get(0).getTime();
+        ArrayList<Duty> near = new ArrayList<Duty>();
+        for (int i = before.size() - 1; i >= 0 && isNear(before.get(i), boundary); i -= 1) {
+            near.add(before.get(i));
+        }
+        for (int i = 0; i < after.size() && isNear(after.get(i), boundary); i += 1) {
+            near.add(after.get(i));
+        }
+        return near;
+    }
+
+    /**
+     * Checks if a Duty falls within BOUNDARY_DAYS of a window boundary.
+     *
+     * @param  duty     The Duty to check
+     * @param  boundary The time of the first Duty after the boundary
+     * @return          true if the Duty is near the boundary
+     */
+    private boolean isNear(Duty duty, long boundary) {
+        return Math.abs(duty.getTime() - boundary) <= BOUNDARY_DAYS * MILLIS_PER_DAY;
+    }
+
+    /**
+     * Builds a Schedule from the assignments of every RA.
+     *
+     * @param  lists The assignments of every RA
+     * @return       A Schedule holding those assignments
+     */
+    private Schedule build(HashMap<RA, ArrayList<Duty>> lists) {
+        Schedule.ScheduleBuilder builder = new Schedule.ScheduleBuilder(raList.size(),
+                                                                        dutyList.size(), context);
+        for (RA ra : raList) {
+            builder.putAssignmentList(ra, lists.get(ra));
+        }
+        return builder.build();
+    }
+
+}
@@ -20,6 +20,7 @@ package duty_scheduler;
  */
 
 import java.util.Calendar;
+import java.util.TimeZone;
 
 import choice_optimizer.AbstractItem;
 import choice_optimizer.Item;
@@ -35,8 +36,13 @@ public class Duty extends AbstractItem {
     private static final int MIN_YEAR = 2014;
     private static final int MAX_MONTH = 11;
     private static final int MIN_MONTH = 0;
+    private static final long MILLIS_PER_DAY = 86400000L;
+    private static final int DAYS_PER_WEEK = 7;
+    private static final int EPOCH_FRIDAY = 1;
+    private static final int EPOCH_SATURDAY = 2;
     
     private Calendar date;
+    private int dayNumber;
 
     /**
      * Creates a new Duty instance that represents the date month/day/year. 
@@ -56,6 +62,10 @@ public class Duty extends AbstractItem {
         } 
         date.set(year, month, day, 0, 0, 0); //Note: the constructor trusts that the day is valid
         date.set(Calendar.MILLISECOND, 0);
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        utc.clear();
+        utc.set(year, month, day);
+        dayNumber = (int) (utc.getTimeInMillis() / MILLIS_PER_DAY);
         String formatString = "%d-";
         if (month < 10) {
             formatString += "0";
@@ -68,6 +78,20 @@ public class Duty extends AbstractItem {
         stringRep = String.format(formatString, year, month, day);
     }
 
+    /**
+     * Creates a new Duty instance that represents the date month/day/year and has the given
+     * index in the list of duties being scheduled.
+     * 
+     * @param  year    The year of this date. Must be later than 2014.
+     * @param  month   The month of this date. Must be in between 0 and 11, inclusive.
+     * @param  day     The day of this date. It is trusted that this date is valid.
+     * @param  ordinal The index of this Duty in the list of duties being scheduled
+     */
+    public Duty(int year, int month, int day, int ordinal) {
+        this(year, month, day);
+        this.ordinal = ordinal;
+    }
+
     /**
      * Returns the time represented by this Duty.
      * 
@@ -77,6 +101,28 @@ public class Duty extends AbstractItem {
         return date.getTimeInMillis();
     }
 
+    /**
+     * Returns the day this Duty takes place on as a count of days, so that the number of days
+     * between two Duty instances is the difference of their day numbers, regardless of daylight
+     * saving time.
+     *
+     * @return the number of days since the Epoch
+     */
+    public int getDayNumber() {
+        return dayNumber;
+    }
+
+    /**
+     * Checks if this Duty falls on a weekend night, a Friday or a Saturday. Day 0, the first
+     * of January 1970, was a Thursday.
+     *
+     * @return true if this Duty is on a Friday or Saturday
+     */
+    public boolean isWeekend() {
+        int weekday = ((dayNumber % DAYS_PER_WEEK) + DAYS_PER_WEEK) % DAYS_PER_WEEK;
+        return weekday == EPOCH_FRIDAY || weekday == EPOCH_SATURDAY;
+    }
+
     /**
      * Compares this Duty to another by comparing the dates they represent.
      *         
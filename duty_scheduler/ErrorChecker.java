@@ -36,10 +36,6 @@ public class ErrorChecker {
 
     public static final int NO_BOUND = -1;
     private static final double PERC_ALLOWED_UNDOABLE = .5;
-    
-    private static int[] cantDosByRA;
-    private static int[] cantDosByDuty;
-    private static int[] prefSumPerRA;
 
     /**
      * Private constructor to enforce noninstantiability
@@ -72,48 +68,16 @@ public class ErrorChecker {
     }
     
     /**
-     * Assigns the integer at index j of cantDosByRA to how many duties the RA at index j of raList 
-     * has labeled undoable, and assigns the integer at index i of cantDosByDuty to how many RAs 
-     * have labeled the Duty at index i of dutyList undoable.
+     * Counts how many duties each RA has labeled undoable, how many RAs have labeled each Duty
+     * undoable and the sum of each RA's preferences over the duties it can do. The counts are
+     * returned rather than kept here, so Schedulers checking different inputs do not share them.
      *
      * @param raList an <code>ArrayList</code> containing all of the RAs
      * @param dutyList an <code>ArrayList</code> containing all of the duties
+     * @return the preference counts of the RAs and duties, which the other checks are run on
      */
-    public static void evalPrefs(ArrayList<RA> raList, ArrayList<Duty> dutyList) {
-        cantDosByRA = new int[raList.size()];
-        cantDosByDuty = new int[dutyList.size()];
-        prefSumPerRA = new int[raList.size()];
-        int dutiesToAssign = 0;
-        for (int i = 0; i < dutyList.size(); i++) {
-            for (int j = 0; j < raList.size(); j++) {
-                if (i == 0) {
-                    dutiesToAssign += raList.get(j).requiredDuties();
-                }
-                if (!raList.get(j).eligibleItem(dutyList.get(i))) {
-                    cantDosByDuty[i]++;
-                    cantDosByRA[j]++;
-                } else {
-                    prefSumPerRA[j] += raList.get(j).itemWeight(dutyList.get(i));
-                }
-            }
-        }
-        if (dutiesToAssign != dutyList.size()) {
-            throw new RuntimeException("The number of duties to assign to each RA does not sum to "
-                                                   + "the number of duties that need assignment. ");
-        }
-    }
-    
-    /**
-     * Checks and makes sure the preferences are (probably) of the form 1, 2, ..., n. 
-     */
-    public static void checkConsistency() {
-        for (int i = 0; i < prefSumPerRA.length; i++) {
-            if (prefSumPerRA[i] != (sumTo(cantDosByDuty.length - cantDosByRA[i]))) {
-                throw new IllegalArgumentException("One or more RAs have not labeled their doable "
-                    + "duties from 1 to n, where n is totalDuties - (duties labeled as cant do). "
-                    + "Please revise the preferences.");
-            }
-        }
+    public static PreferenceCounts evalPrefs(ArrayList<RA> raList, ArrayList<Duty> dutyList) {
+        return new PreferenceCounts(raList, dutyList);
     }
     
     /**
@@ -126,41 +90,6 @@ public class ErrorChecker {
         return n * (n + 1) / 2;
     }
     
-    /**
-     * Checks to see if the set of preferences has made the duties impossible to schedule by 
-     * standard scheduling rules.
-     */
-    public static void checkImpossible() {
-        for (int i = 0; i < cantDosByDuty.length; i++) {
-            if (cantDosByDuty[i] == cantDosByRA.length) {
-                throw new IllegalArgumentException("One or more duties have been listed as undoable"
-                + " by every RA.\nPlease run the algorithm again with the 'allowBads' argument or "
-                + "change the preference values.\nIt is advised to resolve this issue by changing "
-                + "the preferences, as running the algorithm with 'allowBads' drastically increases"
-                + " the time required to find a good solution.");
-            }
-        }
-    }
-    
-    /**
-     * Checks to see if one or more RAs have labeled too many duties as undoable. 
-     * This is to prevent RAs from labeled every duty but the ones they really want as undoable.
-     * @param raList an <code>ArrayList</code> containing all of the RAs
-     */
-    public static void checkGreedy(ArrayList<RA> raList) {
-        ArrayList<String> badRAs = new ArrayList<String>();
-        for (int i = 0; i < cantDosByRA.length; i++) {
-            if (cantDosByRA[i] >= PERC_ALLOWED_UNDOABLE * cantDosByDuty.length) {
-                badRAs.add(raList.get(i).toString());
-            }
-        }
-        if (badRAs.size() > 0) {
-            throw new IllegalArgumentException(String.format("The following RAs have listed too "
-                + "many duties as undoable: %s\nRun the algorithm again with the ALLOW_GREEDY "
-                + "option, or change the preference input.", badRAs.toString()));
-        }
-    }
-    
     /**
      * Checks if val >= lower
      * 
@@ -221,4 +150,99 @@ public class ErrorChecker {
         }
     }
 
+    /**
+     * The undoable duty counts and preference sums of one input, which the preference checks
+     * are run on.
+     */
+    public static class PreferenceCounts {
+
+        private final int[] cantDosByRA;
+        private final int[] cantDosByDuty;
+        private final int[] prefSumPerRA;
+
+        /**
+         * Assigns the integer at index j of cantDosByRA to how many duties the RA at index j of
+         * raList has labeled undoable, and assigns the integer at index i of cantDosByDuty to
+         * how many RAs have labeled the Duty at index i of dutyList undoable.
+         *
+         * @param raList an <code>ArrayList</code> containing all of the RAs
+         * @param dutyList an <code>ArrayList</code> containing all of the duties
+         */
+        private PreferenceCounts(ArrayList<RA> raList, ArrayList<Duty> dutyList) {
+            cantDosByRA = new int[raList.size()];
+            cantDosByDuty = new int[dutyList.size()];
+            prefSumPerRA = new int[raList.size()];
+            int dutiesToAssign = 0;
+            for (int i = 0; i < dutyList.size(); i++) {
+                for (int j = 0; j < raList.size(); j++) {
+                    if (i == 0) {
+                        dutiesToAssign += raList.get(j).requiredDuties();
+                    }
+                    if (!raList.get(j).eligibleItem(dutyList.get(i))) {
+                        cantDosByDuty[i]++;
+                        cantDosByRA[j]++;
+                    } else {
+                        prefSumPerRA[j] += raList.get(j).itemWeight(dutyList.get(i));
+                    }
+                }
+            }
+            if (dutiesToAssign != dutyList.size()) {
+                throw new RuntimeException("The number of duties to assign to each RA does not "
+                                        + "sum to the number of duties that need assignment. ");
+            }
+        }
+
+        /**
+         * Checks and makes sure the preferences are (probably) of the form 1, 2, ..., n. 
+         */
+        public void checkConsistency() {
+            for (int i = 0; i < prefSumPerRA.length; i++) {
+                if (prefSumPerRA[i] != (sumTo(cantDosByDuty.length - cantDosByRA[i]))) {
+                    throw new IllegalArgumentException("One or more RAs have not labeled their "
+                        + "doable duties from 1 to n, where n is totalDuties - (duties labeled as "
+                        + "cant do). Please revise the preferences.");
+                }
+            }
+        }
+
+        /**
+         * Checks to see if the set of preferences has made the duties impossible to schedule by 
+         * standard scheduling rules.
+         */
+        public void checkImpossible() {
+            for (int i = 0; i < cantDosByDuty.length; i++) {
+                if (cantDosByDuty[i] == cantDosByRA.length) {
+                    throw new IllegalArgumentException("One or more duties have been listed as "
+                    + "undoable by every RA.\nPlease run the algorithm again with the 'allowBads' "
+                    + "argument or change the preference values.\nIt is advised to resolve this "
+                    + "issue by changing the preferences, as running the algorithm with "
+                    + "'allowBads' drastically increases the time required to find a good "
+                    + "solution.");
+                }
+            }
+        }
+
+        /**
+         * Checks to see if one or more RAs have labeled too many duties as undoable. 
+         * This is to prevent RAs from labeled every duty but the ones they really want as
+         * undoable.
+         * @param raList an <code>ArrayList</code> containing all of the RAs, in the order the
+         *               counts were made in
+         */
+        public void checkGreedy(ArrayList<RA> raList) {
+            ArrayList<String> badRAs = new ArrayList<String>();
+            for (int i = 0; i < cantDosByRA.length; i++) {
+                if (cantDosByRA[i] >= PERC_ALLOWED_UNDOABLE * cantDosByDuty.length) {
+                    badRAs.add(raList.get(i).toString());
+                }
+            }
+            if (badRAs.size() > 0) {
+                throw new IllegalArgumentException(String.format("The following RAs have listed "
+                    + "too many duties as undoable: %s\nRun the algorithm again with the "
+                    + "ALLOW_GREEDY option, or change the preference input.", badRAs.toString()));
+            }
+        }
+
+    }
+
 }
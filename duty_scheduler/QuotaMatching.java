@@ -0,0 +1,145 @@
+package duty_scheduler;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * An assignment of Duty instances to RAs, by index, in which no RA holds more duties than its
+ * quota. Duties are added one at a time, either to a chosen RA with room left or along an
+ * augmenting path that moves already assigned duties between RAs to make room, so a Duty is
+ * only left out if no assignment of the duties added so far could include it. Once every Duty
+ * is added and every RA is at its quota the assignment is complete.
+ *
+ * @author Matthew Mussomele
+ */
+public class QuotaMatching {
+
+    private static final int NONE = -1;
+
+    private final int[][] eligible;
+    private final int[] quotas;
+    private final int[] owners;
+    private final int[] loads;
+    private final ArrayList<ArrayList<Integer>> held;
+
+    /**
+     * Creates an empty QuotaMatching.
+     *
+     * @param  eligible The indices of the RAs that can take each Duty, which must not be changed
+     * @param  quotas   The number of duties each RA needs
+     */
+    public QuotaMatching(int[][] eligible, int[] quotas) {
+        this.eligible = eligible;
+        this.quotas = quotas;
+        owners = new int[eligible.length];
+        Arrays.fill(owners, NONE);
+        loads = new int[quotas.length];
+        held = new ArrayList<ArrayList<Integer>>(quotas.length);
+        for (int r = 0; r < quotas.length; r += 1) {
+            held.add(new ArrayList<Integer>());
+        }
+    }
+
+    /**
+     * Checks if an RA holds fewer duties than its quota.
+     *
+     * @param  r The index of the RA
+     * @return   true if the RA can be given another Duty
+     */
+    public boolean hasRoom(int r) {
+        return loads[r] < quotas[r];
+    }
+
+    /**
+     * Gives a Duty that has no owner yet to an RA with room left.
+     *
+     * @param d The index of the Duty
+     * @param r The index of the RA
+     */
+    public void give(int d, int r) {
+        owners[d] = r;
+        loads[r] += 1;
+        held.get(r).add(d);
+    }
+
+    /**
+     * Gives a Duty that has no owner yet to some RA that can take it, moving already assigned
+     * duties along an augmenting path if every such RA is at its quota.
+     *
+     * @param  d The index of the Duty
+     * @return   true if the Duty was given an owner
+     */
+    public boolean augment(int d) {
+        return augment(d, new boolean[quotas.length]);
+    }
+
+    /**
+     * Gives a Duty an owner as augment(int) does, leaving RAs already tried on the path alone.
+     *
+     * @param  d       The index of the Duty
+     * @param  visited Whether each RA was already tried on this path
+     * @return         true if the Duty was given an owner
+     */
+    private boolean augment(int d, boolean[] visited) {
+        for (int r : eligible[d]) {
+            if (!visited[r] && hasRoom(r)) {
+                give(d, r);
+                return true;
+            }
+        }
+        for (int r : eligible[d]) {
+            if (visited[r]) {
+                continue;
+            }
+            visited[r] = true;
+            ArrayList<Integer> duties = held.get(r);
+            for (int i = 0; i < duties.size(); i += 1) {
+                if (augment(duties.get(i), visited)) {
+                    duties.remove(i);
+                    loads[r] -= 1;
+                    give(d, r);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the number of duties an RA holds.
+     *
+     * @param  r The index of the RA
+     * @return   The number of duties given to the RA
+     */
+    public int load(int r) {
+        return loads[r];
+    }
+
+    /**
+     * Gets the owner of every Duty.
+     *
+     * @return a copy of the index of the RA each Duty was given to, or -1 for duties without one
+     */
+    public int[] getOwners() {
+        return Arrays.copyOf(owners, owners.length);
+    }
+
+}
@@ -24,6 +24,7 @@ import java.util.HashSet;
 
 import choice_optimizer.AbstractChooser;
 import choice_optimizer.Item;
+import choice_optimizer.SparsePreferences;
 
 /**
  * A class representing Resident Assistants for use with my genetic scheduling algorithm.
@@ -43,12 +44,19 @@ public class RA extends AbstractChooser {
      * @param name    The name of this RA
      * @param dta     The number of duties to assign to this RA
      * @param invalid The set of Duty instances that are not to be assigned to this RA
+     * @param td      The total number of duties being scheduled
+     * @param dw      The weight of duties that are not in prefs
+     * @param ord     The index of this RA among the RAs being scheduled, or -1
      */
-    private RA(HashMap<Item, Integer> prefs, String name, int dta, HashSet<Item> invalid) {
-        preferences = new HashMap<Item, Integer>(prefs);
+    private RA(HashMap<Item, Integer> prefs, String name, int dta, HashSet<Item> invalid,
+               int td, int dw, int ord) {
+        ordinal = ord;
+        preferences = new SparsePreferences(prefs, dw);
         this.name = name;
         dutiesToAssign = dta;
         invalidItems = new HashSet<Item>(invalid);
+        maskSize = td;
+        eligibleMask = buildMask(td, invalidItems);
     }
 
     /**
@@ -60,6 +68,29 @@ public class RA extends AbstractChooser {
         return dutiesToAssign;
     }
 
+    /**
+     * Gets the total number of duties this RA was built against, which bounds its preference
+     * values.
+     * 
+     * @return the total number of duties given to this RA's builder
+     */
+    public int totalDuties() {
+        return maskSize;
+    }
+
+    /**
+     * Checks if this RA can be swapped with another RA without changing the cost of any Schedule,
+     * which is the case when both need the same number of duties and submitted the same
+     * preferences.
+     *
+     * @param  other The RA to compare against
+     * @return       true if the two RAs are interchangeable
+     */
+    public boolean interchangeableWith(RA other) {
+        return dutiesToAssign == other.dutiesToAssign && preferences.equals(other.preferences)
+                && invalidItems.equals(other.invalidItems);
+    }
+
     /**
      * A static builder class to allow RA instances to be immutable.
      */
@@ -111,7 +142,7 @@ public class RA extends AbstractChooser {
          * @return A new RA instance.
          */
         @Override public RA build() {
-            return new RA(prefs, name, dta, invalid);
+            return new RA(prefs, name, dta, invalid, tD, defaultWeight, ordinal);
         }
 
     }
@@ -0,0 +1,311 @@
+package duty_scheduler;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A preprocessing pass that narrows the choices of every RA before the genetic algorithm is
+ * seeded. One complete assignment of the Duty instances is found by augmenting paths, and any
+ * other complete assignment differs from it by cycles through the graph of eligible choices, so
+ * an RA-Duty choice can be made by some complete assignment exactly when it is in the found one
+ * or both ends lie in the same strongly connected component of that graph. Every other choice
+ * is dominated, since no valid Schedule can contain it, and is dropped. A Duty left with a single
+ * RA is pinned to that RA.
+ * The narrowed RAs keep their names, quotas and preferences, with the dropped choices marked as
+ * invalid, so the Schedules built from them still hold every Duty and are costed under the full
+ * objective. Pinned duties are never moved, since no other RA can take them.
+ *
+ * @author Matthew Mussomele
+ */
+public class Reduction {
+
+    private static final int UNVISITED = -1;
+
+    private ArrayList<RA> raList;
+    private ArrayList<Duty> dutyList;
+    private int[][] eligible;
+    private int[] owners;
+    private boolean[][] viable;
+    private ArrayList<RA> narrowed;
+    private int fixedCount;
+    private int prunedCount;
+
+    /**
+     * Reduces the problem of assigning the given Duty instances to the given RAs.
+     *
+     * @param  raList        The RAs that need duties assigned
+     * @param  dutyList      The Duty instances to assign
+     * @param  allowIllegals Whether or not RAs may be assigned duties they labeled undoable
+     * @throws IllegalArgumentException if no Schedule can give every RA its required duties
+     */
+    public Reduction(ArrayList<RA> raList, ArrayList<Duty> dutyList, boolean allowIllegals) {
+        this.raList = new ArrayList<RA>(raList);
+        this.dutyList = new ArrayList<Duty>(dutyList);
+        eligible = new int[dutyList.size()][];
+        int[] scratch = new int[raList.size()];
+        for (int d = 0; d < dutyList.size(); d += 1) {
+            int count = 0;
+            for (int r = 0; r < raList.size(); r += 1) {
+                if (allowIllegals || raList.get(r).eligibleItem(dutyList.get(d))) {
+                    scratch[count] = r;
+                    count += 1;
+                }
+            }
+            eligible[d] = Arrays.copyOf(scratch, count);
+        }
+        match();
+        filter();
+        narrow();
+    }
+
+    /**
+     * Finds one complete assignment, giving every Duty an owner and every RA exactly its
+     * required number of duties.
+     *
+     * @throws IllegalArgumentException if there is no such assignment
+     */
+    private void match() {
+        int[] quotas = new int[raList.size()];
+        for (int r = 0; r < raList.size(); r += 1) {
+            quotas[r] = raList.get(r).requiredDuties();
+        }
+        QuotaMatching matching = new QuotaMatching(eligible, quotas);
+        for (int d = 0; d < dutyList.size(); d += 1) {
+            if (!matching.augment(d)) {
+                throw new IllegalArgumentException(String.format("No RA with duties left to "
+                                + "assign can take the duty on %s.", dutyList.get(d)));
+            }
+        }
+        for (int r = 0; r < raList.size(); r += 1) {
+            if (matching.load(r) != quotas[r]) {
+                throw new IllegalArgumentException(String.format("%s cannot be given the "
+                                + "required number of duties.", raList.get(r)));
+            }
+        }
+        owners = matching.getOwners();
+    }
+
+    /**
+     * Marks the choices some complete assignment can make. The graph has a node for every Duty
+     * and every RA, an edge from each RA to the duties it owns in the found assignment and an
+     * edge from each Duty to its other eligible RAs. Its strongly connected components are
+     * found with an iterative version of Tarjan's algorithm.
+     */
+    private void filter() {
+        int dutyCount = dutyList.size();
+        int nodes = dutyCount + raList.size();
+        int[][] edges = new int[nodes][];
+        int[] ownedCounts = new int[raList.size()];
+        for (int d = 0; d < dutyCount; d += 1) {
+            ownedCounts[owners[d]] += 1;
+            edges[d] = new int[eligible[d].length - 1];
+            int count = 0;
+            for (int r : eligible[d]) {
+                if (r != owners[d]) {
+                    edges[d][count] = dutyCount + r;
+                    count += 1;
+                }
+            }
+        }
+        for (int r = 0; r < raList.size(); r += 1) {
+            edges[dutyCount + r] = new int[ownedCounts[r]];
+            ownedCounts[r] = 0;
+        }
+        for (int d = 0; d < dutyCount; d += 1) {
+            int r = owners[d];
+            edges[dutyCount + r][ownedCounts[r]] = d;
+            ownedCounts[r] += 1;
+        }
+        int[] components = components(edges);
+        viable = new boolean[dutyCount][raList.size()];
+        for (int d = 0; d < dutyCount; d += 1) {
+            int choices = 0;
+            for (int r : eligible[d]) {
+                if (r == owners[d] || components[d] == components[dutyCount + r]) {
+                    viable[d][r] = true;
+                    choices += 1;
+                } else {
+                    prunedCount += 1;
+                }
+            }
+            if (choices == 1) {
+                fixedCount += 1;
+            }
+        }
+    }
+
+    /**
+     * Labels every node of a directed graph with its strongly connected component.
+     *
+     * @param  edges The targets of the edges leaving each node
+     * @return       The component of each node
+     */
+    private static int[] components(int[][] edges) {
+        int nodes = edges.length;
+        int[] index = new int[nodes];
+        int[] low = new int[nodes];
+        int[] components = new int[nodes];
+        boolean[] onStack = new boolean[nodes];
+        int[] stack = new int[nodes];
+        int[] callStack = new int[nodes];
+        int[] nextEdge = new int[nodes];
+        Arrays.fill(index, UNVISITED);
+        int counter = 0;
+        int componentCount = 0;
+        int stackSize = 0;
+        for (int root = 0; root < nodes; root += 1) {
+            if (index[root] != UNVISITED) {
+                continue;
+            }
+            int depth = 0;
+            callStack[depth] = root;
+            index[root] = low[root] = counter++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+            while (depth >= 0) {
+                int node = callStack[depth];
+                if (nextEdge[node] < edges[node].length) {
+                    int next = edges[node][nextEdge[node]++];
+                    if (index[next] == UNVISITED) {
+                        index[next] = low[next] = counter++;
+                        stack[stackSize++] = next;
+                        onStack[next] = true;
+                        callStack[++depth] = next;
+                    } else if (onStack[next]) {
+                        low[node] = Math.min(low[node], index[next]);
+                    }
+                    continue;
+                }
+                if (low[node] == index[node]) {
+                    int member;
+                    do {
+                        member = stack[--stackSize];
+                        onStack[member] = false;
+                        components[member] = componentCount;
+                    } while (member != node);
+                    componentCount += 1;
+                }
+                depth -= 1;
+                if (depth >= 0) {
+                    int parent = callStack[depth];
+                    low[parent] = Math.min(low[parent], low[node]);
+                }
+            }
+        }
+        return components;
+    }
+
+    /**
+     * Builds the narrowed RAs. An RA without dominated choices is kept as it is, and every other
+     * RA is rebuilt with the same name, quota, ordinal and preferences, but with its dominated
+     * choices marked as invalid.
+     */
+    private void narrow() {
+        narrowed = new ArrayList<RA>(raList.size());
+        for (int r = 0; r < raList.size(); r += 1) {
+            RA ra = raList.get(r);
+            boolean pruned = false;
+            for (int d = 0; d < dutyList.size() && !pruned; d += 1) {
+                pruned = !viable[d][r] && ra.eligibleItem(dutyList.get(d));
+            }
+            if (!pruned) {
+                narrowed.add(ra);
+                continue;
+            }
+            RA.RABuilder builder = new RA.RABuilder(ra.toString(), ra.totalDuties(),
+                                                    ra.requiredDuties());
+            builder.setOrdinal(ra.ordinal());
+            builder.setDefaultWeight(ra.getDefaultWeight());
+            for (int d = 0; d < dutyList.size(); d += 1) {
+                Duty duty = dutyList.get(d);
+                if (!viable[d][r] || !ra.eligibleItem(duty)) {
+                    builder.putPreference(duty, Scheduler.INVALID_ITEM_PRIORITY);
+                } else if (ra.ranksItem(duty)) {
+                    builder.putPreference(duty, ra.itemWeight(duty));
+                }
+            }
+            narrowed.add(builder.build());
+        }
+    }
+
+    /**
+     * Gets the RAs with their dominated choices dropped, in the order they were given. Each one
+     * is equal to the RA it was built from.
+     *
+     * @return a list of the narrowed RAs
+     */
+    public ArrayList<RA> getRAs() {
+        return new ArrayList<RA>(narrowed);
+    }
+
+    /**
+     * Gets the number of Duty instances that only one RA can take.
+     *
+     * @return the number of pinned duties
+     */
+    public int getFixedCount() {
+        return fixedCount;
+    }
+
+    /**
+     * Gets the number of RA-Duty choices that no complete assignment can make.
+     *
+     * @return the number of dominated choices dropped
+     */
+    public int getPrunedCount() {
+        return prunedCount;
+    }
+
+    /**
+     * Checks if the reduction pinned every Duty, leaving nothing for the genetic algorithm.
+     *
+     * @return true if there is only one valid Schedule
+     */
+    public boolean isComplete() {
+        return fixedCount == dutyList.size();
+    }
+
+    /**
+     * Builds the Schedule that gives every Duty to the RA it was matched to. Once the reduction is
+     * complete this is the only valid Schedule. Every RA gets an assignment list, even one that
+     * needs no duties, so the Schedule covers all of them and is always valid.
+     *
+     * @param  context The rules the Schedule is costed under
+     * @return         A Schedule of every narrowed RA and every Duty
+     * @throws IllegalArgumentException if there are fewer than 2 RAs
+     */
+    public Schedule matchedSchedule(ScheduleContext context) {
+        ArrayList<ArrayList<Duty>> lists = new ArrayList<ArrayList<Duty>>(raList.size());
+        for (int r = 0; r < raList.size(); r += 1) {
+            lists.add(new ArrayList<Duty>(raList.get(r).requiredDuties()));
+        }
+        for (int d = 0; d < dutyList.size(); d += 1) {
+            lists.get(owners[d]).add(dutyList.get(d));
+        }
+        Schedule.ScheduleBuilder builder = new Schedule.ScheduleBuilder(raList.size(),
+                                                                        dutyList.size(), context);
+        for (int r = 0; r < raList.size(); r += 1) {
+            builder.putAssignmentList(narrowed.get(r), lists.get(r));
+        }
+        return builder.build();
+    }
+
+}
@@ -0,0 +1,210 @@
+package duty_scheduler;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A fixed, indexed list of the RAs being scheduled. Every Schedule of one problem shares a
+ * Roster, so RAs can be picked by index and per-RA data can be kept in arrays. A Roster built
+ * with the Duty instances being assigned also keeps an inverted index of which RAs can take each
+ * Duty, so mutation can propose only eligible swaps, and can group interchangeable RAs into
+ * symmetry classes.
+ *
+ * @author Matthew Mussomele
+ */
+public class Roster {
+
+    private final RA[] ras;
+    private final HashMap<RA, Integer> positions;
+    private final HashMap<Duty, int[]> candidates;
+    private final int[] symmetryClasses;
+
+    /**
+     * Creates a Roster of the given RAs, indexed in iteration order.
+     *
+     * @param  members The RAs to index
+     */
+    public Roster(Collection<RA> members) {
+        this(members, new ArrayList<Duty>(), false);
+    }
+
+    /**
+     * Creates a Roster of the given RAs, indexed in iteration order, along with the indices of
+     * the RAs that can take each of the given Duty instances and the symmetry classes of the
+     * RAs.
+     *
+     * @param  members The RAs to index
+     * @param  duties  The Duty instances to index the candidate RAs of
+     */
+    public Roster(Collection<RA> members, Collection<Duty> duties) {
+        this(members, duties, true);
+    }
+
+    /**
+     * Creates a Roster of the given RAs, indexed in iteration order, along with the indices of
+     * the RAs that can take each of the given Duty instances. RAs with the same preferences and
+     * quota must not be grouped when their cost also depends on something else about them, such
+     * as the duties each of them held in a warm start Schedule.
+     *
+     * @param  members The RAs to index
+     * @param  duties  The Duty instances to index the candidate RAs of
+     * @param  group   Whether or not to group interchangeable RAs
+     */
+    public Roster(Collection<RA> members, Collection<Duty> duties, boolean group) {
+        ras = members.toArray(new RA[members.size()]);
+        positions = new HashMap<RA, Integer>(ras.length * 2);
+        for (int i = 0; i < ras.length; i += 1) {
+            if (positions.put(ras[i], i) != null) {
+                throw new IllegalArgumentException(String.format("%s is listed twice.", ras[i]));
+            }
+        }
+        candidates = new HashMap<Duty, int[]>(duties.size() * 2);
+        int[] eligible = new int[ras.length];
+        for (Duty duty : duties) {
+            int count = 0;
+            for (int i = 0; i < ras.length; i += 1) {
+                if (ras[i].eligibleItem(duty)) {
+                    eligible[count] = i;
+                    count += 1;
+                }
+            }
+            candidates.put(duty, Arrays.copyOf(eligible, count));
+        }
+        symmetryClasses = new int[ras.length];
+        Arrays.fill(symmetryClasses, -1);
+        if (group) {
+            groupInterchangeable();
+        }
+    }
+
+    /**
+     * Groups RAs that are interchangeable into symmetry classes. Only classes with more than one
+     * member are recorded.
+     */
+    private void groupInterchangeable() {
+        int classCount = 0;
+        for (int i = 0; i < ras.length; i += 1) {
+            if (symmetryClasses[i] >= 0) {
+                continue;
+            }
+            for (int j = i + 1; j < ras.length; j += 1) {
+                if (symmetryClasses[j] < 0 && ras[i].interchangeableWith(ras[j])) {
+                    symmetryClasses[j] = classCount;
+                    symmetryClasses[i] = classCount;
+                }
+            }
+            if (symmetryClasses[i] >= 0) {
+                classCount += 1;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of RAs in this Roster.
+     *
+     * @return the number of RAs
+     */
+    public int size() {
+        return ras.length;
+    }
+
+    /**
+     * Gets the RA at an index.
+     *
+     * @param  index The index of the RA
+     * @return       The RA at that index
+     */
+    public RA get(int index) {
+        return ras[index];
+    }
+
+    /**
+     * Gets the index of an RA. An RA whose ordinal is its index here is found without hashing.
+     *
+     * @param  ra The RA to look for
+     * @return    The index of the RA, or -1 if it is not in this Roster
+     */
+    public int indexOf(RA ra) {
+        int ordinal = ra.ordinal();
+        if (ordinal >= 0 && ordinal < ras.length && ras[ordinal] == ra) {
+            return ordinal;
+        }
+        Integer position = positions.get(ra);
+        return position == null ? -1 : position;
+    }
+
+    /**
+     * Gets the indices of the RAs that can take a Duty, in increasing order.
+     *
+     * @param  duty The Duty to look up
+     * @return      The indices of the eligible RAs, or null if the Duty was not indexed
+     */
+    public int[] candidates(Duty duty) {
+        return candidates.get(duty);
+    }
+
+    /**
+     * Gets the symmetry class of an RA.
+     *
+     * @param  ra The RA to look up
+     * @return    The class of the RA, or -1 if no other RA is interchangeable with it
+     */
+    public int symmetryClass(RA ra) {
+        int index = indexOf(ra);
+        return index < 0 ? -1 : symmetryClasses[index];
+    }
+
+    /**
+     * Checks if two RAs belong to the same symmetry class.
+     *
+     * @param  first  The first RA
+     * @param  second The second RA
+     * @return        true if swapping every duty of the two RAs leaves the cost unchanged
+     */
+    public boolean interchangeable(RA first, RA second) {
+        int firstClass = symmetryClass(first);
+        return firstClass >= 0 && firstClass == symmetryClass(second)
+                && first.requiredDuties() == second.requiredDuties();
+    }
+
+    /**
+     * Checks if this Roster holds exactly the RAs that are keys of a map.
+     *
+     * @param  map A map keyed by RAs
+     * @return     true if the map has a key for every RA in this Roster and no others
+     */
+    public boolean covers(Map<RA, ?> map) {
+        if (map.size() != ras.length) {
+            return false;
+        }
+        for (RA ra : ras) {
+            if (!map.containsKey(ra)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
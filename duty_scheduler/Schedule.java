@@ -19,10 +19,13 @@ package duty_scheduler;
  *  along with this program. If not, see <http://www.gnu.org/licenses/>.
  */
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.ArrayList;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 
 import choice_optimizer.AbstractMapping;
 
@@ -33,59 +36,426 @@ import choice_optimizer.AbstractMapping;
  */
 public class Schedule extends AbstractMapping<RA, Duty> {
 
-    private static final double MILLIS_PER_DAY = 86400000.0;
-    private static final double ADJACENCY_PENALTY = 2.0;
+    private static final int MUTATION_ATTEMPTS = 8;
+
+    private Roster roster;
+    private ScheduleContext context;
+    private TournamentTree raCosts;
+    private TournamentTree raDiscrepancies;
+    private int[] raChanges;
+    private int changeTotal;
+    private int firstChanged;
+    private int secondChanged;
+    private HashSet<RA> ownedLists;
+    private boolean costed;
 
     /**
-     * Constructs a new Schedule from the given ScheduleBuilder
+     * Constructs a new Schedule from the given ScheduleBuilder. Its cost is not calculated until
+     * it is first needed.
      *
-     * @param  map The assignment map that belongs to this Schedule instance
-     * @param  d   The number of duties in this Schedule
+     * @param  map     The assignment map that belongs to this Schedule instance
+     * @param  d       The number of duties in this Schedule
+     * @param  roster  The Roster of the RAs in map
+     * @param  context The rules of the problem this Schedule belongs to
      */
-    private Schedule(HashMap<RA, ArrayList<Duty>> map, int d) {
+    private Schedule(HashMap<RA, ArrayList<Duty>> map, int d, Roster roster,
+                     ScheduleContext context) {
         mappings = map;
         items = d;
-        cost = calculateCost();
+        this.roster = roster;
+        this.context = context;
+        firstChanged = -1;
+        costed = false;
     }
 
     /**
-     * Creates a mutated defensive copy of this Schedule.
+     * Constructs a new Schedule whose cost is already known.
+     *
+     * @param  map     The assignment map that belongs to this Schedule instance
+     * @param  d       The number of duties in this Schedule
+     * @param  roster  The Roster of the RAs in map
+     * @param  context The rules of the problem this Schedule belongs to
+     * @param  cost    The cost of the assignments in map
+     */
+    private Schedule(HashMap<RA, ArrayList<Duty>> map, int d, Roster roster,
+                     ScheduleContext context, double cost) {
+        mappings = map;
+        items = d;
+        this.roster = roster;
+        this.context = context;
+        this.cost = cost;
+        firstChanged = -1;
+        costed = true;
+    }
+
+    /**
+     * Creates a mutated defensive copy of this Schedule. Only the assignment lists of the two
+     * RAs that exchange duties are copied; the mutated Schedule shares every other list with
+     * this one. Shared lists are never changed in place, since moves copy a list before they
+     * first write to it, and this Schedule gives up ownership of the lists it shares. Unless
+     * illegal assignments are allowed, only swaps that leave both RAs with duties they can take
+     * are proposed, with partners drawn from the Roster's inverted index. Pairs of
+     * interchangeable RAs that each hold a single Duty are never picked. If this Schedule is
+     * costed, the mutated copy inherits its per-RA costs and only recosts the two RAs that
+     * exchanged duties.
      * 
-     * @return a mutated copy of this Schedule
+     * @return a mutated copy of this Schedule, or null if no legal swap was found
      */
     public Schedule mutate() {
-        ScheduleBuilder mutator = new ScheduleBuilder(mappings.size(), items);
-        RA[] swapping = getTwoAtRandom();
-        ArrayList<Duty> firstSwap = new ArrayList<Duty>(getAssignments(swapping[0]));
-        ArrayList<Duty> secondSwap = new ArrayList<Duty>(getAssignments(swapping[1]));
-        swapDuties(firstSwap, secondSwap);
-        for (RA ra : mappings.keySet()) {
-            if (ra.equals(swapping[0])) {
-                mutator.putAssignmentList(ra, firstSwap);
-            } else if (ra.equals(swapping[1])) {
-                mutator.putAssignmentList(ra, secondSwap);
+        ThreadLocalRandom gen = ThreadLocalRandom.current();
+        boolean eligibleOnly = !context.allowsIllegals();
+        for (int attempt = 0; attempt < MUTATION_ATTEMPTS; attempt += 1) {
+            int i = gen.nextInt(roster.size());
+            int j = eligibleOnly ? partnerOf(i, gen) : otherIndex(i, gen);
+            if (j < 0 || symmetric(i, j)) {
+                continue;
+            }
+            Schedule mutated = mutate(i, j, eligibleOnly, gen);
+            if (mutated != null) {
+                return mutated;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Creates a copy of this Schedule with duties swapped between two RAs.
+     *
+     * @param  i            The Roster index of the first RA
+     * @param  j            The Roster index of the second RA
+     * @param  eligibleOnly Whether or not only swaps both RAs can take are allowed
+     * @param  gen          The source of randomness to use
+     * @return              The mutated Schedule, or null if no swap was possible
+     */
+    private Schedule mutate(int i, int j, boolean eligibleOnly, Random gen) {
+        RA first = roster.get(i);
+        RA second = roster.get(j);
+        ArrayList<Duty> firstSwap = new ArrayList<Duty>(mappings.get(first));
+        ArrayList<Duty> secondSwap = new ArrayList<Duty>(mappings.get(second));
+        if (!swapDuties(firstSwap, secondSwap, first, second, eligibleOnly, gen)) {
+            return null;
+        }
+        HashMap<RA, ArrayList<Duty>> map = new HashMap<RA, ArrayList<Duty>>(mappings);
+        map.put(first, firstSwap);
+        map.put(second, secondSwap);
+        ownedLists = null;
+        Schedule mutated = new Schedule(map, items, roster, context);
+        if (costed) {
+            mutated.inherit(this);
+            mutated.firstChanged = i;
+            mutated.secondChanged = j;
+        }
+        return mutated;
+    }
+
+    /**
+     * Picks an RA to swap duties with, among the RAs that can take a random Duty of the given
+     * RA according to the Roster's inverted index. If the RA holds a single Duty, RAs that are
+     * interchangeable with it and also hold a single Duty are passed over, since swapping with
+     * them changes nothing.
+     *
+     * @param  i   The Roster index of the RA giving up a Duty
+     * @param  gen The source of randomness to use
+     * @return     The Roster index of a different RA, or -1 if every candidate is passed over
+     */
+    private int partnerOf(int i, Random gen) {
+        ArrayList<Duty> duties = mappings.get(roster.get(i));
+        if (duties.isEmpty()) {
+            return otherIndex(i, gen);
+        }
+        int[] candidates = roster.candidates(duties.get(gen.nextInt(duties.size())));
+        if (candidates == null || candidates.length < 2) {
+            return otherIndex(i, gen);
+        }
+        if (duties.size() > 1 || roster.symmetryClass(roster.get(i)) < 0) {
+            int k = gen.nextInt(candidates.length);
+            if (candidates[k] == i) {
+                k = (k + 1 + gen.nextInt(candidates.length - 1)) % candidates.length;
+            }
+            return candidates[k];
+        }
+        int chosen = -1;
+        int seen = 0;
+        for (int candidate : candidates) {
+            if (candidate != i && !symmetric(i, candidate)) {
+                seen += 1;
+                if (gen.nextInt(seen) == 0) {
+                    chosen = candidate;
+                }
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * Checks if every swap between two RAs only produces a Schedule equivalent to this one,
+     * which is the case when they are interchangeable and each holds a single Duty.
+     *
+     * @param  i The Roster index of the first RA
+     * @param  j The Roster index of the second RA
+     * @return   true if swapping duties between the two RAs changes nothing
+     */
+    private boolean symmetric(int i, int j) {
+        RA first = roster.get(i);
+        RA second = roster.get(j);
+        return mappings.get(first).size() == 1 && mappings.get(second).size() == 1
+                && roster.interchangeable(first, second);
+    }
+
+    /**
+     * Creates a copy of this Schedule that uses the given Roster, if it holds the same RAs, so
+     * that Schedules from elsewhere can share a problem's Roster, its inverted index and its
+     * symmetry classes.
+     *
+     * @param  other The Roster to use
+     * @return       A Schedule using the Roster, or this Schedule if the Roster does not fit
+     */
+    Schedule withRoster(Roster other) {
+        if (other == roster || !other.covers(mappings)) {
+            return this;
+        }
+        ownedLists = null;
+        return new Schedule(new HashMap<RA, ArrayList<Duty>>(mappings), items, other, context);
+    }
+
+    /**
+     * Gets the cost of this Schedule, calculating it the first time it is needed. A Schedule
+     * that is discarded before anything asks for its cost is never costed. A Schedule mutated
+     * from a costed one only recosts the two RAs that exchanged duties. The first call must not
+     * be made from two threads at once.
+     *
+     * @return the cost of this Schedule
+     */
+    @Override public double getCost() {
+        if (!costed) {
+            if (firstChanged < 0) {
+                cost = calculateCost();
             } else {
-                mutator.putAssignmentList(ra, new ArrayList<Duty>(getAssignments(ra)));
+                cost = evaluate(roster.get(firstChanged), roster.get(secondChanged), true);
+                firstChanged = -1;
             }
+            costed = true;
+        }
+        return cost;
+    }
+
+    /**
+     * Creates a copy of this Schedule which can be changed in place by moves without affecting
+     * this Schedule. The copy shares this Schedule's assignment lists until a move writes to
+     * them.
+     *
+     * @return a copy of this Schedule
+     */
+    public Schedule copy() {
+        ownedLists = null;
+        if (!costed) {
+            return new Schedule(new HashMap<RA, ArrayList<Duty>>(mappings), items, roster,
+                                context);
+        }
+        Schedule copied = new Schedule(new HashMap<RA, ArrayList<Duty>>(mappings), items, roster,
+                                       context, cost);
+        copied.inherit(this);
+        return copied;
+    }
+
+    /**
+     * Copies the recorded per-RA costs, discrepancies and changed duties of a costed Schedule
+     * over the same Roster.
+     *
+     * @param source The Schedule to copy the records of
+     */
+    private void inherit(Schedule source) {
+        raCosts = new TournamentTree(source.raCosts);
+        raDiscrepancies = new TournamentTree(source.raDiscrepancies);
+        raChanges = Arrays.copyOf(source.raChanges, source.raChanges.length);
+        changeTotal = source.changeTotal;
+    }
+
+    /**
+     * Gets the assignments of an RA so that a move can change them in place, first replacing
+     * the list with a private copy if this Schedule has not written to it before. Lists may be
+     * shared with the Schedule this one was mutated or copied from, or with a ScheduleBuilder.
+     *
+     * @param  ra The RA to get the assignments of
+     * @return    The list of Duty instances assigned to the RA, owned by this Schedule
+     */
+    @Override protected ArrayList<Duty> writableAssignments(RA ra) {
+        ArrayList<Duty> list = super.writableAssignments(ra);
+        if (ownedLists == null) {
+            ownedLists = new HashSet<RA>();
         }
-        return mutator.build();
+        if (ownedLists.add(ra)) {
+            list = new ArrayList<Duty>(list);
+            mappings.put(ra, list);
+        }
+        return list;
     }
 
     /**
-     * Takes in two ArrayLists and swaps random elements in place.
+     * Takes in two ArrayLists and swaps random elements in place. At least one element is always
+     * swapped, and if the lists belong to interchangeable RAs at least one is always kept, since
+     * either extreme only produces a Schedule equivalent to this one.
      *
-     * @param firstSwap  The first ArrayList to swap duties from
-     * @param secondSwap The second ArrayList to swao duties from
+     * @param  firstSwap    The first ArrayList to swap duties from
+     * @param  secondSwap   The second ArrayList to swap duties from
+     * @param  first        The RA the first ArrayList belongs to
+     * @param  second       The RA the second ArrayList belongs to
+     * @param  eligibleOnly Whether or not each RA must be able to take the duties it receives
+     * @param  gen          The source of randomness to use
+     * @return              true if at least one element was swapped
      */
-    private void swapDuties(ArrayList<Duty> firstSwap, ArrayList<Duty> secondSwap) {
-        Random gen = new Random();
-        for (int i = 0; i < Math.min(firstSwap.size(), secondSwap.size()); i += 1) {
-            if (gen.nextDouble() < Scheduler.MUTATION_CHANCE) {
-                Duty temp = firstSwap.get(i);
-                firstSwap.set(i, secondSwap.get(i));
-                secondSwap.set(i, temp);
+    private boolean swapDuties(ArrayList<Duty> firstSwap, ArrayList<Duty> secondSwap, RA first,
+                               RA second, boolean eligibleOnly, Random gen) {
+        int length = Math.min(firstSwap.size(), secondSwap.size());
+        int swapped = 0;
+        for (int i = 0; i < length; i += 1) {
+            if (gen.nextDouble() < context.getMutationChance()
+                    && (!eligibleOnly || (second.eligibleItem(firstSwap.get(i))
+                                          && first.eligibleItem(secondSwap.get(i))))) {
+                swapAt(firstSwap, secondSwap, i);
+                swapped += 1;
             }
         }
+        if (swapped == 0) {
+            return exchangeRandom(firstSwap, secondSwap, first, second, eligibleOnly, gen);
+        } else if (roster.interchangeable(first, second) && length > 1 && swapped == length) {
+            swapAt(firstSwap, secondSwap, gen.nextInt(length));
+        }
+        return true;
+    }
+
+    /**
+     * Exchanges a random element of one ArrayList with a random element of the other.
+     *
+     * @param  firstSwap    The first ArrayList to swap a duty from
+     * @param  secondSwap   The second ArrayList to swap a duty from
+     * @param  first        The RA the first ArrayList belongs to
+     * @param  second       The RA the second ArrayList belongs to
+     * @param  eligibleOnly Whether or not each RA must be able to take the duty it receives
+     * @param  gen          The source of randomness to use
+     * @return              true if an exchange was possible
+     */
+    private boolean exchangeRandom(ArrayList<Duty> firstSwap, ArrayList<Duty> secondSwap,
+                                   RA first, RA second, boolean eligibleOnly, Random gen) {
+        int i = randomTakeable(firstSwap, eligibleOnly ? second : null, gen);
+        int j = randomTakeable(secondSwap, eligibleOnly ? first : null, gen);
+        if (i < 0 || j < 0) {
+            return false;
+        }
+        firstSwap.set(i, secondSwap.set(j, firstSwap.get(i)));
+        return true;
+    }
+
+    /**
+     * Picks a random position of an ArrayList holding a Duty the given RA can take.
+     *
+     * @param  duties   The ArrayList to pick from
+     * @param  receiver The RA that would take the Duty, or null to allow any Duty
+     * @param  gen      The source of randomness to use
+     * @return          A uniformly random such position, or -1 if there is none
+     */
+    private int randomTakeable(ArrayList<Duty> duties, RA receiver, Random gen) {
+        int chosen = -1;
+        int seen = 0;
+        for (int i = 0; i < duties.size(); i += 1) {
+            if (receiver == null || receiver.eligibleItem(duties.get(i))) {
+                seen += 1;
+                if (gen.nextInt(seen) == 0) {
+                    chosen = i;
+                }
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * Swaps the elements at index i of two ArrayLists.
+     *
+     * @param firstSwap  The first ArrayList
+     * @param secondSwap The second ArrayList
+     * @param i          The index to swap
+     */
+    private void swapAt(ArrayList<Duty> firstSwap, ArrayList<Duty> secondSwap, int i) {
+        Duty temp = firstSwap.get(i);
+        firstSwap.set(i, secondSwap.get(i));
+        secondSwap.set(i, temp);
+    }
+
+    /**
+     * Compares this Schedule to another Object for equality. Two Schedules are equal if they have
+     * the same cost and assign the same Duty instances to each RA, up to exchanging the
+     * assignments of interchangeable RAs. Costs are compared through getCost(), so either
+     * Schedule may be costed here. Equal Schedules have equal costs, which keeps the cost hash
+     * of AbstractMapping consistent with this.
+     *
+     * @param  other The Object to compare against
+     * @return       true if other is an equivalent Schedule
+     */
+    @Override public boolean equals(Object other) {
+        if (!(other instanceof Schedule)) {
+            return false;
+        }
+        Schedule o = (Schedule) other;
+        if (Double.compare(getCost(), o.getCost()) != 0) {
+            return false;
+        }
+        return mappings.equals(o.mappings) || canonicalForm().equals(o.canonicalForm());
+    }
+
+    /**
+     * Gets the key an RA's assignments are fingerprinted under. Interchangeable RAs share the
+     * key of their symmetry class, so Schedules that only exchange their assignments have the
+     * same fingerprint.
+     *
+     * @param  ra The RA to get the key of
+     * @return    The key of the RA's symmetry class, or of the RA if it has none
+     */
+    @Override protected long chooserKey(RA ra) {
+        int symmetryClass = roster.symmetryClass(ra);
+        return symmetryClass < 0 ? ra.hashCode() : Long.MIN_VALUE + symmetryClass;
+    }
+
+    /**
+     * Builds a form of this Schedule that does not distinguish between interchangeable RAs, by
+     * grouping the sets of Duty instances assigned to each RA under the RA's equivalence class.
+     *
+     * @return a map from each equivalence class (or lone RA) to its members' Duty sets
+     */
+    private HashMap<Object, HashSet<HashSet<Duty>>> canonicalForm() {
+        HashMap<Object, HashSet<HashSet<Duty>>> form
+                                    = new HashMap<Object, HashSet<HashSet<Duty>>>(mappings.size());
+        for (RA ra : mappings.keySet()) {
+            int symmetryClass = roster.symmetryClass(ra);
+            Object key = symmetryClass < 0 ? ra : Integer.valueOf(symmetryClass);
+            if (!form.containsKey(key)) {
+                form.put(key, new HashSet<HashSet<Duty>>());
+            }
+            form.get(key).add(new HashSet<Duty>(mappings.get(ra)));
+        }
+        return form;
+    }
+
+    /**
+     * Counts the Duty instances that this Schedule and another assign to different RAs, i.e. the
+     * Hamming distance between the two Schedules over duty assignments.
+     *
+     * @param  other The Schedule to compare against
+     * @return       The number of Duty instances whose RA differs between the two Schedules
+     */
+    public int distance(Schedule other) {
+        int shared = 0;
+        for (RA ra : mappings.keySet()) {
+            ArrayList<Duty> theirs = other.mappings.get(ra);
+            if (theirs == null) {
+                continue;
+            }
+            for (Duty duty : mappings.get(ra)) {
+                if (theirs.contains(duty)) {
+                    shared += 1;
+                }
+            }
+        }
+        return items - shared;
     }
 
     /**
@@ -96,9 +466,10 @@ public class Schedule extends AbstractMapping<RA, Duty> {
      */
     @Override
     public String toString() {
+        getCost();
         String result = "";
         for (RA ra : mappings.keySet()) {
-            result += ra.toString() + " " + Double.toString(assignmentsCost(ra)) + "\n";
+            result += ra.toString() + " " + Double.toString(raCosts.get(roster.indexOf(ra))) + "\n";
             for (Duty duty : mappings.get(ra)) {
                 result += "\t" + duty.toString() + "\n";
             }
@@ -112,24 +483,21 @@ public class Schedule extends AbstractMapping<RA, Duty> {
      * @return an array holding exactly two distinct RAs from this schedule.
      */
     public RA[] getTwoAtRandom() {
-        Random gen = new Random();
-        int first = -1;
-        int second = -1;
-        while (first == second) {
-            first = gen.nextInt(mappings.size());
-            second = gen.nextInt(mappings.size());
-        }
-        RA[] toReturn = new RA[2];
-        int i = 0;
-        for (RA ra : mappings.keySet()) {
-            if (i == first) {
-                toReturn[0] = ra;
-            } else if (i == second) {
-                toReturn[1] = ra;
-            }   
-            i += 1;
-        }
-        return toReturn;
+        ThreadLocalRandom gen = ThreadLocalRandom.current();
+        int first = gen.nextInt(roster.size());
+        return new RA[] {roster.get(first), roster.get(otherIndex(first, gen))};
+    }
+
+    /**
+     * Picks a random Roster index different from the given one in a single draw.
+     *
+     * @param  first The index to avoid
+     * @param  gen   The source of randomness to use
+     * @return       A uniformly random index other than first
+     */
+    private int otherIndex(int first, Random gen) {
+        int second = gen.nextInt(roster.size() - 1);
+        return second >= first ? second + 1 : second;
     }
 
     /**
@@ -139,27 +507,50 @@ public class Schedule extends AbstractMapping<RA, Duty> {
 
         private int d;
         private int r;
+        private Roster roster;
+        private ScheduleContext context;
 
         /**
-         * Constructs a ScheduleBuilder instance.
+         * Constructs a ScheduleBuilder instance whose Schedules use the default context.
          * 
          * @param  raCount   The number of RAs that will be scheduled.
          * @param  dutyCount The number of Duty's that will be assigned.
          */
         public ScheduleBuilder(int raCount, int dutyCount) {
-            try {
-                if (raCount < 2) {
-                    throw new IllegalArgumentException("Must have at least 2 RAs.");
-                } else if (dutyCount < 1) {
-                    throw new IllegalArgumentException("Must have at least 1 Duty.");
-                } else {
-                    this.map = new HashMap<RA, ArrayList<Duty>>(raCount);
-                    this.d = dutyCount;
-                    this.r = raCount;
-                }
-            } catch (IllegalArgumentException e) {
-                ErrorChecker.printExceptionToLog(e);
+            this(raCount, dutyCount, ScheduleContext.DEFAULT);
+        }
+
+        /**
+         * Constructs a ScheduleBuilder instance.
+         * 
+         * @param  raCount   The number of RAs that will be scheduled.
+         * @param  dutyCount The number of Duty's that will be assigned.
+         * @param  context   The rules of the problem the Schedules belong to.
+         * @throws IllegalArgumentException if there are fewer than 2 RAs or no duties
+         */
+        public ScheduleBuilder(int raCount, int dutyCount, ScheduleContext context) {
+            this.context = context;
+            if (raCount < 2) {
+                throw new IllegalArgumentException("Must have at least 2 RAs.");
+            } else if (dutyCount < 1) {
+                throw new IllegalArgumentException("Must have at least 1 Duty.");
             }
+            this.map = new HashMap<RA, ArrayList<Duty>>(raCount);
+            this.d = dutyCount;
+            this.r = raCount;
+        }
+
+        /**
+         * Constructs a ScheduleBuilder whose Schedules share the given Roster, as long as they
+         * assign duties to exactly its RAs.
+         * 
+         * @param  roster    The Roster of the RAs that will be scheduled.
+         * @param  dutyCount The number of Duty's that will be assigned.
+         * @param  context   The rules of the problem the Schedules belong to.
+         */
+        public ScheduleBuilder(Roster roster, int dutyCount, ScheduleContext context) {
+            this(roster.size(), dutyCount, context);
+            this.roster = roster;
         }
 
         /**
@@ -187,7 +578,9 @@ public class Schedule extends AbstractMapping<RA, Duty> {
          */
         public Schedule build() {
             if (detValid()) {
-                return new Schedule(map, d);
+                Roster shared = roster != null && roster.covers(map) ? roster
+                                                                     : new Roster(map.keySet());
+                return new Schedule(map, d, shared, context);
             } else {
                 return null;
             }
@@ -213,30 +606,139 @@ public class Schedule extends AbstractMapping<RA, Duty> {
     }    
 
     /**
-     * Calculates the cost of a this Schedule
+     * Calculates the cost of a this Schedule, recording the cost, discrepancy and changed duties
+     * of each RA's assignments in Roster order.
      *
      * @return the cost of this Schedule as a double
      */
     private double calculateCost() {
-        double myCost = 0;
-        double maxCost = Double.MIN_VALUE;
-        int maxDiscrepancy = Integer.MIN_VALUE;
-        for (RA ra : mappings.keySet()) {
-            double thisCost = assignmentsCost(ra);
-            int thisDiscrepancy = Math.abs(ra.requiredDuties() - mappings.get(ra).size());
-            if (thisCost > maxCost) {
-                maxCost = thisCost;
-            }
-            if (thisDiscrepancy > maxDiscrepancy) {
-                maxDiscrepancy = thisDiscrepancy;
-            }
-            myCost += thisCost + thisDiscrepancy;
+        double[] costs = new double[roster.size()];
+        double[] discrepancies = new double[roster.size()];
+        raChanges = new int[roster.size()];
+        changeTotal = 0;
+        for (int k = 0; k < roster.size(); k += 1) {
+            RA ra = roster.get(k);
+            costs[k] = cachedCost(ra);
+            discrepancies[k] = discrepancyOf(k);
+            raChanges[k] = changesOf(ra);
+            changeTotal += raChanges[k];
         }
-        return myCost + maxCost + maxDiscrepancy;
+        raCosts = new TournamentTree(roster.size());
+        raCosts.load(costs);
+        raDiscrepancies = new TournamentTree(roster.size());
+        raDiscrepancies.load(discrepancies);
+        return total(-1, 0, 0, -1, 0, 0);
     }
 
     /**
-     * Calculates the cost of a single RAs assignments in this Schedule.
+     * Scores this Schedule from the recorded per-RA costs, discrepancies and changed duties, with
+     * those of up to two RAs replaced. The sums and maxima are read from tournament trees over
+     * the RAs, so only the paths of the replaced RAs are walked, and the same assignments always
+     * give exactly the same total.
+     *
+     * @param  i           The index of the first replaced RA, or -1
+     * @param  iCost       The replacement assignment cost of the first RA
+     * @param  iChanges    The replacement number of changed duties of the first RA
+     * @param  j           The index of the second replaced RA, or -1
+     * @param  jCost       The replacement assignment cost of the second RA
+     * @param  jChanges    The replacement number of changed duties of the second RA
+     * @return             The total cost
+     */
+    private double total(int i, double iCost, int iChanges, int j, double jCost, int jChanges) {
+        int iDiscrepancy = i < 0 ? 0 : discrepancyOf(i);
+        int jDiscrepancy = j < 0 ? 0 : discrepancyOf(j);
+        int changes = changeTotal;
+        if (i >= 0) {
+            changes += iChanges - raChanges[i];
+        }
+        if (j >= 0 && j != i) {
+            changes += jChanges - raChanges[j];
+        }
+        double maxCost = Math.max(Double.MIN_VALUE, raCosts.maxWith(i, iCost, j, jCost));
+        double discrepancy = raDiscrepancies.sumWith(i, iDiscrepancy, j, jDiscrepancy);
+        double maxDiscrepancy = raDiscrepancies.maxWith(i, iDiscrepancy, j, jDiscrepancy);
+        return context.getScheduleCost().scheduleCost(raCosts.sumWith(i, iCost, j, jCost),
+                                                      (int) discrepancy, maxCost,
+                                                      (int) maxDiscrepancy, changes);
+    }
+
+    /**
+     * Computes the cost of this Schedule after the assignments of two RAs changed in place. Only
+     * the two changed RAs are recosted, and the recorded costs of the others are reused.
+     *
+     * @param  first  The first RA whose assignments changed
+     * @param  second The second RA whose assignments changed
+     * @param  commit true if the change is being kept, false if it will be reverted
+     * @return        The cost of this Schedule with the changed assignments
+     */
+    @Override protected double evaluate(RA first, RA second, boolean commit) {
+        int i = roster.indexOf(first);
+        int j = roster.indexOf(second);
+        double firstCost = assignmentsCost(first);
+        double secondCost = assignmentsCost(second);
+        int firstChanges = changesOf(first);
+        int secondChanges = changesOf(second);
+        double newCost = total(i, firstCost, firstChanges, j, secondCost, secondChanges);
+        if (commit) {
+            raCosts.set(i, firstCost);
+            raCosts.set(j, secondCost);
+            raDiscrepancies.set(i, discrepancyOf(i));
+            raDiscrepancies.set(j, discrepancyOf(j));
+            changeTotal += firstChanges - raChanges[i] + secondChanges - raChanges[j];
+            raChanges[i] = firstChanges;
+            raChanges[j] = secondChanges;
+        }
+        return newCost;
+    }
+
+    /**
+     * Gets how far the number of duties of an RA is from the number they are required to take.
+     *
+     * @param  index The Roster index of the RA
+     * @return       The absolute difference between the required and assigned duties
+     */
+    private int discrepancyOf(int index) {
+        RA ra = roster.get(index);
+        return Math.abs(ra.requiredDuties() - mappings.get(ra).size());
+    }
+
+    /**
+     * Counts the duties of an RA that were assigned to someone else in the warm start Schedule.
+     *
+     * @param  ra The RA to count the changed duties of
+     * @return    The number of changed duties, or 0 if there is no warm start
+     */
+    private int changesOf(RA ra) {
+        WarmStart previous = context.getWarmStart();
+        return previous == null ? 0 : previous.changes(ra, mappings.get(ra));
+    }
+
+    /**
+     * Gets the cost of a single RA's assignments from the problem's CostCache, calculating and
+     * caching it if it is not there. Only used before this Schedule's first move, since moves
+     * can change its lists in place.
+     *
+     * @param  ra the RA whose assignments to find the cost of
+     * @return    the cost of the RA's assignments in this Schedule
+     */
+    private double cachedCost(RA ra) {
+        CostCache cache = context.getCostCache();
+        if (cache == null) {
+            return assignmentsCost(ra);
+        }
+        ArrayList<Duty> duties = mappings.get(ra);
+        long fingerprint = CostCache.fingerprint(duties);
+        double thisCost = cache.get(ra, duties, fingerprint);
+        if (Double.isNaN(thisCost)) {
+            thisCost = assignmentsCost(ra);
+            cache.put(ra, duties, fingerprint, thisCost);
+        }
+        return thisCost;
+    }
+
+    /**
+     * Calculates the cost of a single RAs assignments in this Schedule with the problem's
+     * ScheduleCost, counting adjacent duties only if they are penalized.
      *
      * @param ra the RA who's schedule to find the cost of
      * @return the cost of a single RAs assignments in this Schedule
@@ -246,32 +748,29 @@ public class Schedule extends AbstractMapping<RA, Duty> {
         if (thisSchedule == null || thisSchedule.size() == 0) {
             return 0;
         }
-        double myCost = 0;
-        Duty last = null;
+        ScheduleCost rules = context.getScheduleCost();
+        double preference = 0;
+        int weekends = 0;
         for (Duty duty : thisSchedule) {
-            myCost += ra.itemWeight(duty);
-            if (Scheduler.CONSIDER_ADJACENTS) {
-                myCost += adjacencyCost(last, duty);
+            preference += ra.itemWeight(duty);
+            if (duty.isWeekend()) {
+                weekends += 1;
             }
-            last = duty;
         }
-        return myCost / thisSchedule.size();
+        int adjacent = rules.countsAdjacency() ? adjacentPairs(thisSchedule) : 0;
+        return rules.assignmentCost(preference, thisSchedule.size(), adjacent, weekends);
     }
 
     /**
-     * Calculates any additional costs incurred by two duties being next to each other.
+     * Counts the pairs of assigned duties that fall within a day of each other, whatever order
+     * they were assigned in.
      *
-     * @param  prev The earlier duty to use in the test
-     * @param  next The later duty to use in the test
-     * @return the penalty for any two assigned duties being with a day of each other
+     * @param  duties The duties assigned to one RA
+     * @return        The number of adjacent pairs
      */
-    private double adjacencyCost(Duty prev, Duty next) {
-        if (prev == null) {
-            return 0;
-        } else {
-            long dayDifference = Math.round((next.getTime() - prev.getTime()) / MILLIS_PER_DAY);
-            return dayDifference < 2 ? ADJACENCY_PENALTY : 0;
-        }
+    private int adjacentPairs(ArrayList<Duty> duties) {
+        ConflictGraph graph = context.getConflictGraph();
+        return graph == null ? ConflictGraph.sweep(duties) : graph.conflicts(duties);
     }
 
 }
@@ -0,0 +1,210 @@
+package duty_scheduler;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * The rules one scheduling problem is solved under: the cost terms, the cache of assignment
+ * costs, the adjacency of its duties, the schedule it was warm started from and how Schedules
+ * mutate. Every Schedule of a problem holds the problem's ScheduleContext, so problems with
+ * different rules can be solved at the same time in one JVM.
+ *
+ * @author Matthew Mussomele
+ */
+public class ScheduleContext {
+
+    static final double MUTATE_DEFAULT = 0.21602435146951632;
+
+    /**
+     * The context of Schedules built without one, with the default cost terms and no cache,
+     * conflict graph or warm start.
+     */
+    public static final ScheduleContext DEFAULT = new ContextBuilder(new ScheduleCost("", true,
+                                                        1.0, ScheduleCost.WEEKEND_SHARE)).build();
+
+    private final ScheduleCost scheduleCost;
+    private final CostCache costCache;
+    private final ConflictGraph conflictGraph;
+    private final WarmStart warmStart;
+    private final double mutationChance;
+    private final boolean allowIllegals;
+
+    /**
+     * Constructs a new ScheduleContext from the given ContextBuilder.
+     *
+     * @param  builder The builder holding the rules
+     */
+    private ScheduleContext(ContextBuilder builder) {
+        scheduleCost = builder.scheduleCost;
+        costCache = builder.costCache;
+        conflictGraph = builder.conflictGraph;
+        warmStart = builder.warmStart;
+        mutationChance = builder.mutationChance;
+        allowIllegals = builder.allowIllegals;
+    }
+
+    /**
+     * Gets the cost rules Schedules are scored by.
+     *
+     * @return The ScheduleCost of this problem
+     */
+    public ScheduleCost getScheduleCost() {
+        return scheduleCost;
+    }
+
+    /**
+     * Gets the cache of RA assignment costs shared by the Schedules of this problem.
+     *
+     * @return The CostCache, or null if caching is turned off
+     */
+    public CostCache getCostCache() {
+        return costCache;
+    }
+
+    /**
+     * Gets the graph of which duties fall within the adjacency window of each other.
+     *
+     * @return The ConflictGraph of the duties, or null to find adjacent duties by sorting
+     */
+    public ConflictGraph getConflictGraph() {
+        return conflictGraph;
+    }
+
+    /**
+     * Gets the previous schedule this problem was warm started from.
+     *
+     * @return The WarmStart, or null if the problem was not warm started
+     */
+    public WarmStart getWarmStart() {
+        return warmStart;
+    }
+
+    /**
+     * Gets the chance that a mutation swaps the duties at each position of two RAs' lists.
+     *
+     * @return The mutation chance, between 0 and 1
+     */
+    public double getMutationChance() {
+        return mutationChance;
+    }
+
+    /**
+     * Checks if RAs may be assigned duties they labeled undoable.
+     *
+     * @return true if illegal assignments are allowed
+     */
+    public boolean allowsIllegals() {
+        return allowIllegals;
+    }
+
+    /**
+     * A class used to construct ScheduleContext instances while allowing immutability.
+     */
+    public static class ContextBuilder {
+
+        private final ScheduleCost scheduleCost;
+        private CostCache costCache;
+        private ConflictGraph conflictGraph;
+        private WarmStart warmStart;
+        private double mutationChance = MUTATE_DEFAULT;
+        private boolean allowIllegals = false;
+
+        /**
+         * Creates a new ContextBuilder.
+         *
+         * @param  scheduleCost The cost rules Schedules are scored by
+         */
+        public ContextBuilder(ScheduleCost scheduleCost) {
+            if (scheduleCost == null) {
+                throw new NullPointerException("Cannot use null cost rules.");
+            }
+            this.scheduleCost = scheduleCost;
+        }
+
+        /**
+         * Sets the cache of RA assignment costs.
+         *
+         * @param  cache The CostCache, or null to turn caching off
+         * @return this builder
+         */
+        public ContextBuilder setCostCache(CostCache cache) {
+            costCache = cache;
+            return this;
+        }
+
+        /**
+         * Sets the graph of which duties fall within the adjacency window of each other.
+         *
+         * @param  graph The ConflictGraph of the duties, or null to find adjacent duties by
+         *               sorting
+         * @return this builder
+         */
+        public ContextBuilder setConflictGraph(ConflictGraph graph) {
+            conflictGraph = graph;
+            return this;
+        }
+
+        /**
+         * Sets the previous schedule to seed populations from and to penalize changes against.
+         *
+         * @param  previous The WarmStart, or null for a cold start
+         * @return this builder
+         */
+        public ContextBuilder setWarmStart(WarmStart previous) {
+            warmStart = previous;
+            return this;
+        }
+
+        /**
+         * Sets the chance that a mutation swaps the duties at each position of two RAs' lists.
+         *
+         * @param  chance A chance between 0 and 1, exclusive
+         * @return this builder
+         */
+        public ContextBuilder setMutationChance(double chance) {
+            if (chance <= 0 || chance >= 1) {
+                throw new IllegalArgumentException("The mutation chance must be within (0, 1).");
+            }
+            mutationChance = chance;
+            return this;
+        }
+
+        /**
+         * Sets whether RAs may be assigned duties they labeled undoable.
+         *
+         * @param  allow true to allow illegal assignments
+         * @return this builder
+         */
+        public ContextBuilder setAllowIllegals(boolean allow) {
+            allowIllegals = allow;
+            return this;
+        }
+
+        /**
+         * Builds a new immutable ScheduleContext from this builder.
+         *
+         * @return a new ScheduleContext
+         */
+        public ScheduleContext build() {
+            return new ScheduleContext(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,261 @@
+package duty_scheduler;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.MutableCallSite;
+import java.util.Collection;
+import java.util.Map;
+
+import choice_optimizer.CostModel;
+import choice_optimizer.CostModel.ModelBuilder;
+
+/**
+ * The cost rules of the duty scheduler, as two compiled CostModels. The assignment model costs
+ * one RA's assignments from their summed preference weights, the number of duties, the pairs of
+ * adjacent duties and the number of weekend duties. The schedule model combines the summed
+ * assignment costs with the summed and largest duty discrepancies, the largest assignment cost
+ * and the number of duties changed from a warm start.
+ *
+ * The terms of the assignment model are summed and the weighted sum is divided once by the
+ * number of the RA's duties, so the defaults give (preference + 2 * adjacent) / duties exactly as
+ * the cost was always computed:
+ * <ul>
+ *     <li>preference - the summed preference weights of the duties, weight 1 by default</li>
+ *     <li>adjacency - pairs of duties within the adjacency window, weight 2 by default when
+ *         CONSIDER_ADJACENTS is set</li>
+ *     <li>weekend - how far the RA's weekend duties are from their share of all weekend
+ *         duties, weight 0 by default</li>
+ * </ul>
+ * The terms of the schedule model are summed over the whole Schedule:
+ * <ul>
+ *     <li>assignments - the sum of every RA's assignment cost, weight 1 by default</li>
+ *     <li>discrepancy - the sum of every RA's distance from their required duties, weight 1 by
+ *         default</li>
+ *     <li>fairness - the largest assignment cost plus the largest discrepancy, weight 1 by
+ *         default</li>
+ *     <li>changes - duties given to a different RA than in the warm start, weighted by
+ *         CHANGE_PENALTY by default</li>
+ * </ul>
+ * The COST_TERMS configuration option overrides any of these weights, as in
+ * "weekend:1,fairness:2".
+ *
+ * Every ScheduleCost binds its models to a pair of call sites of its own when it is created, and
+ * evaluates them through the sites' invokers. Where the JIT can see which ScheduleCost is in use,
+ * as in the costing loops of one Scheduler, it inlines the terms through the site.
+ *
+ * @author Matthew Mussomele
+ */
+public class ScheduleCost {
+
+    static final double ADJACENCY_PENALTY = 2.0;
+    static final double WEEKEND_SHARE = 2.0 / 7.0;
+
+    private final CostModel assignmentModel;
+    private final CostModel scheduleModel;
+    private final MethodHandle assignmentCost;
+    private final MethodHandle scheduleCost;
+    private final boolean countsAdjacency;
+    private final boolean countsWeekends;
+
+    /**
+     * Creates a ScheduleCost.
+     *
+     * @param  terms            Overrides of the default term weights, as name:weight pairs
+     * @param  considerAdjacent true if adjacent duties are penalized by default
+     * @param  changePenalty    The default weight of duties changed from the warm start
+     * @param  weekendShare     The fraction of all duties being assigned that are on weekends
+     */
+    public ScheduleCost(String terms, boolean considerAdjacent, double changePenalty,
+                        double weekendShare) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodType binary = MethodType.methodType(double.class, double.class, double.class);
+        MethodType ternary = MethodType.methodType(double.class, double.class, double.class,
+                                                   double.class);
+        ModelBuilder assignments = new ModelBuilder("preference", "duties", "adjacent",
+                                                    "weekend");
+        ModelBuilder schedule = new ModelBuilder("assignments", "discrepancy", "maxCost",
+                                                 "maxDiscrepancy", "changes");
+        try {
+            MethodHandle balance = lookup.findStatic(ScheduleCost.class, "balance", ternary);
+            MethodHandle identity = MethodHandles.identity(double.class);
+            assignments.define("preference", identity, "preference")
+                       .define("adjacency", identity, "adjacent")
+                       .define("weekend", MethodHandles.insertArguments(balance, 2, weekendShare),
+                               "weekend", "duties")
+                       .setWeight("preference", 1.0)
+                       .setWeight("adjacency", considerAdjacent ? ADJACENCY_PENALTY : 0.0);
+            schedule.define("assignments", identity, "assignments")
+                    .define("discrepancy", identity, "discrepancy")
+                    .define("fairness", lookup.findStatic(ScheduleCost.class, "sum", binary),
+                            "maxCost", "maxDiscrepancy")
+                    .define("changes", identity, "changes")
+                    .setWeight("assignments", 1.0)
+                    .setWeight("discrepancy", 1.0)
+                    .setWeight("fairness", 1.0)
+                    .setWeight("changes", changePenalty);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not find the cost terms.", e);
+        }
+        for (Map.Entry<String, Double> entry : CostModel.parseWeights(terms).entrySet()) {
+            if (assignments.defines(entry.getKey())) {
+                assignments.setWeight(entry.getKey(), entry.getValue());
+            } else {
+                schedule.setWeight(entry.getKey(), entry.getValue());
+            }
+        }
+        assignmentModel = assignments.build();
+        scheduleModel = schedule.build();
+        assignmentCost = bind(assignmentModel);
+        scheduleCost = bind(scheduleModel);
+        countsAdjacency = assignmentModel.weight("adjacency") != 0.0;
+        countsWeekends = assignmentModel.weight("weekend") != 0.0;
+    }
+
+    /**
+     * Binds a model to a new call site, which nothing else binds to afterwards.
+     *
+     * @param  model The model to evaluate through the site
+     * @return       The invoker of the site
+     */
+    private static MethodHandle bind(CostModel model) {
+        MutableCallSite site = new MutableCallSite(model.evaluator().type());
+        model.bindTo(site);
+        return site.dynamicInvoker();
+    }
+
+    /**
+     * Finds the fraction of a collection of duties that are on weekends.
+     *
+     * @param  duties The duties being assigned
+     * @return        The fraction of weekend duties, or WEEKEND_SHARE if there are no duties
+     */
+    public static double weekendShare(Collection<Duty> duties) {
+        if (duties.isEmpty()) {
+            return WEEKEND_SHARE;
+        }
+        int weekends = 0;
+        for (Duty duty : duties) {
+            if (duty.isWeekend()) {
+                weekends += 1;
+            }
+        }
+        return (double) weekends / duties.size();
+    }
+
+    /**
+     * Checks if pairs of adjacent duties affect the cost, so they need to be counted.
+     *
+     * @return true if the adjacency term has a non-zero weight
+     */
+    public boolean countsAdjacency() {
+        return countsAdjacency;
+    }
+
+    /**
+     * Checks if weekend duties affect the cost, so they need to be counted.
+     *
+     * @return true if the weekend term has a non-zero weight
+     */
+    public boolean countsWeekends() {
+        return countsWeekends;
+    }
+
+    /**
+     * Costs one RA's assignments. The RA must have at least one duty.
+     *
+     * @param  preference The sum of the RA's preference weights for the duties
+     * @param  duties     The number of duties
+     * @param  adjacent   The number of pairs of adjacent duties
+     * @param  weekend    The number of weekend duties
+     * @return            The assignment cost
+     */
+    public double assignmentCost(double preference, int duties, int adjacent, int weekend) {
+        try {
+            double total = (double) assignmentCost.invokeExact(preference, (double) duties,
+                                                               (double) adjacent,
+                                                               (double) weekend);
+            return total / duties;
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("A cost term failed.", e);
+        }
+    }
+
+    /**
+     * Costs a whole Schedule from the totals of its RAs.
+     *
+     * @param  assignments    The sum of every RA's assignment cost
+     * @param  discrepancy    The sum of every RA's distance from their required duties
+     * @param  maxCost        The largest assignment cost
+     * @param  maxDiscrepancy The largest distance from the required duties
+     * @param  changes        The number of duties changed from the warm start
+     * @return                The cost of the Schedule
+     */
+    public double scheduleCost(double assignments, int discrepancy, double maxCost,
+                               int maxDiscrepancy, int changes) {
+        try {
+            return (double) scheduleCost.invokeExact(assignments, (double) discrepancy, maxCost,
+                                                     (double) maxDiscrepancy, (double) changes);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("A cost term failed.", e);
+        }
+    }
+
+    /**
+     * Lists the weights of every term in use.
+     *
+     * @return The non-zero term weights, as name:weight pairs
+     */
+    @Override public String toString() {
+        String schedule = scheduleModel.toString();
+        String assignments = assignmentModel.toString();
+        return assignments.isEmpty() || schedule.isEmpty() ? assignments + schedule
+                                                           : assignments + "," + schedule;
+    }
+
+    /**
+     * Measures how far an RA's weekend duties are from their share.
+     *
+     * @param  weekend The number of weekend duties the RA has
+     * @param  duties  The number of duties the RA has
+     * @param  share   The fraction of all duties that are on weekends
+     * @return         |weekend - share * duties|
+     */
+    private static double balance(double weekend, double duties, double share) {
+        return Math.abs(weekend - share * duties);
+    }
+
+    /**
+     * Adds two values.
+     *
+     * @param  x The first value
+     * @param  y The second value
+     * @return   x + y
+     */
+    private static double sum(double x, double y) {
+        return x + y;
+    }
+
+}
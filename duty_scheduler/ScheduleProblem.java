@@ -0,0 +1,306 @@
+package duty_scheduler;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import choice_optimizer.Mapping;
+import choice_optimizer.Problem;
+
+/**
+ * The problem of assigning a set of Duty instances to a set of RAs under the rules of a
+ * ScheduleContext, for solving with an EvolutionEngine. Random Schedules first give every Duty
+ * that only one RA can take to that RA, then give each RA in turn a random Duty it can take
+ * until every RA has its required number of duties, and a warm started problem also seeds
+ * populations with the adapted previous schedule and mutations of it. A ScheduleProblem is never
+ * changed after it is created, so engines running at the same time can share it. Input it cannot
+ * schedule is reported by throwing, never by exiting.
+ *
+ * @author Matthew Mussomele
+ */
+public class ScheduleProblem implements Problem<RA, Duty> {
+
+    private static final int WARM_MUTATIONS = 4;
+
+    private final ArrayList<RA> raList;
+    private final ArrayList<Duty> dutyList;
+    private final Roster roster;
+    private final ScheduleContext context;
+    private final ArrayList<Duty> pinned;
+    private final ArrayList<Duty> free;
+    private final Duty[] byOrdinal;
+    private final long[] freeDuties;
+    private final ThreadLocal<ArrayList<Duty>> unassigned;
+    private final ThreadLocal<long[]> open;
+
+    /**
+     * Creates a ScheduleProblem. The Duty instances are indexed by ordinal if every one of them
+     * has an ordinal every RA's eligibility bitset covers. The RAs of a warm started problem are
+     * never grouped as interchangeable, since the changes penalized against the previous
+     * Schedule depend on which of them held each Duty. Each thread seeding Schedules of the
+     * problem keeps its own list or bitset of the unassigned Duty instances, which is refilled
+     * for every attempt rather than allocated again.
+     *
+     * @param  raList  The RAs to schedule
+     * @param  duties  The Duty instances to assign to the RAs
+     * @param  context The rules the Schedules are costed and mutated under
+     * @throws IllegalArgumentException if an RA is the only one that can take more duties than
+     *                                  it needs
+     */
+    public ScheduleProblem(Collection<RA> raList, Collection<Duty> duties,
+                           ScheduleContext context) {
+        this.raList = new ArrayList<RA>(raList);
+        this.dutyList = new ArrayList<Duty>(duties);
+        this.context = context;
+        roster = new Roster(this.raList, dutyList, context.getWarmStart() == null);
+        pinned = new ArrayList<Duty>();
+        free = new ArrayList<Duty>(dutyList.size());
+        int[] pinCounts = new int[roster.size()];
+        for (Duty duty : dutyList) {
+            int[] candidates = roster.candidates(duty);
+            if (!context.allowsIllegals() && candidates.length == 1) {
+                int only = candidates[0];
+                pinned.add(duty);
+                pinCounts[only] += 1;
+                if (pinCounts[only] > roster.get(only).requiredDuties()) {
+                    throw new IllegalArgumentException(String.format("%s is the only RA that "
+                                    + "can take more duties than it needs.", roster.get(only)));
+                }
+            } else {
+                free.add(duty);
+            }
+        }
+        unassigned = new ThreadLocal<ArrayList<Duty>>() {
+            @Override protected ArrayList<Duty> initialValue() {
+                return new ArrayList<Duty>(free.size());
+            }
+        };
+        open = new ThreadLocal<long[]>() {
+            @Override protected long[] initialValue() {
+                return new long[freeDuties.length];
+            }
+        };
+        int size = 0;
+        boolean masked = true;
+        for (Duty duty : dutyList) {
+            masked = masked && duty.ordinal() >= 0;
+            size = Math.max(size, duty.ordinal() + 1);
+        }
+        for (RA ra : this.raList) {
+            masked = masked && (size == 0 || ra.masks(size - 1));
+        }
+        if (!masked) {
+            byOrdinal = null;
+            freeDuties = null;
+            return;
+        }
+        byOrdinal = new Duty[size];
+        freeDuties = new long[(size + Long.SIZE - 1) / Long.SIZE];
+        for (Duty duty : dutyList) {
+            byOrdinal[duty.ordinal()] = duty;
+        }
+        for (Duty duty : free) {
+            freeDuties[duty.ordinal() / Long.SIZE] |= 1L << duty.ordinal();
+        }
+    }
+
+    /**
+     * Gets the Roster every Schedule of this problem shares.
+     *
+     * @return the Roster of this problem's RAs
+     */
+    public Roster getRoster() {
+        return roster;
+    }
+
+    /**
+     * Gets the rules this problem is solved under.
+     *
+     * @return the ScheduleContext of this problem
+     */
+    public ScheduleContext getContext() {
+        return context;
+    }
+
+    /**
+     * Creates either a valid random Schedule or null if this attempt was impossible.
+     *
+     * @param  gen The source of randomness to use
+     * @return     A valid Schedule of this problem's RA and Duty instances
+     * @throws IllegalArgumentException if the RAs require fewer duties than there are
+     */
+    public Schedule randomMapping(Random gen) {
+        if (byOrdinal != null && !context.allowsIllegals()) {
+            return randomMaskedMapping(gen);
+        }
+        Schedule.ScheduleBuilder seedBuilder = new Schedule.ScheduleBuilder(roster,
+                                                                            dutyList.size(),
+                                                                            context);
+        for (Duty duty : pinned) {
+            seedBuilder.putAssignment(roster.get(roster.candidates(duty)[0]), duty);
+        }
+        ArrayList<Duty> duties = unassigned.get();
+        duties.clear();
+        duties.addAll(free);
+        Collections.shuffle(duties, gen);
+        int doneCount = 0;
+        while (duties.size() > 0) { //while there are unassigned duties
+            //if all RAs are scheduled but there are duties left, then the json file was invalid
+            if (doneCount == raList.size()) { 
+                throw new IllegalArgumentException("The sum of the required duties per RA"
+                                                    +  " does not equal the total duty count.");
+            }
+            doneCount = 0;
+            for (RA ra : raList) { //loop through the RAs, assigning duties one by one
+                if (seedBuilder.doneAssigning(ra)) {
+                    doneCount += 1;
+                    continue;
+                } else {
+                    Duty firstEligible = getFirstEligible(ra, duties);
+                    if (firstEligible == null) { 
+                        return null; //no elligible duties left means invalid schedule
+                    } else {
+                        seedBuilder.putAssignment(ra, firstEligible);
+                        duties.remove(firstEligible);
+                    }
+                }
+            }
+        }
+        return seedBuilder.build();
+    }
+
+    /**
+     * Creates either a valid random Schedule or null if this attempt was impossible. Works like
+     * randomMapping(), giving each RA in turn a random Duty it can take, but tracks the
+     * unassigned Duty instances as a bitset over their ordinals so each choice is made with
+     * word-level operations on the RA's eligibility bitset.
+     *
+     * @param  gen The source of randomness to use
+     * @return     A valid Schedule of this problem's RA and Duty instances
+     * @throws IllegalArgumentException if the RAs require fewer duties than there are
+     */
+    private Schedule randomMaskedMapping(Random gen) {
+        Schedule.ScheduleBuilder seedBuilder = new Schedule.ScheduleBuilder(roster,
+                                                                            dutyList.size(),
+                                                                            context);
+        for (Duty duty : pinned) {
+            seedBuilder.putAssignment(roster.get(roster.candidates(duty)[0]), duty);
+        }
+        long[] open = this.open.get();
+        System.arraycopy(freeDuties, 0, open, 0, freeDuties.length);
+        int remaining = free.size();
+        int doneCount = 0;
+        while (remaining > 0) {
+            if (doneCount == raList.size()) {
+                throw new IllegalArgumentException("The sum of the required duties per RA"
+                                                    +  " does not equal the total duty count.");
+            }
+            doneCount = 0;
+            for (RA ra : raList) {
+                if (seedBuilder.doneAssigning(ra)) {
+                    doneCount += 1;
+                    continue;
+                }
+                int eligible = ra.countEligible(open);
+                if (eligible == 0) {
+                    return null;
+                }
+                int ordinal = ra.nthEligible(open, gen.nextInt(eligible));
+                seedBuilder.putAssignment(ra, byOrdinal[ordinal]);
+                open[ordinal / Long.SIZE] &= ~(1L << ordinal);
+                remaining -= 1;
+            }
+        }
+        return seedBuilder.build();
+    }
+
+    /**
+     * Gets the first Duty in the ArrayList that can be assigned to the given RA
+     * 
+     * @param ra The RA to find a good Duty for
+     * @param duties The ArrayList of Duty instances still available to be assigned.
+     * @return The first Duty that can be assigned to the given RA
+     */
+    private Duty getFirstEligible(RA ra, ArrayList<Duty> duties) {
+        for (Duty duty : duties) {
+            if (ra.eligibleItem(duty) || context.allowsIllegals()) {
+                return duty;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Creates the Schedules a warm started population starts from: the previous schedule
+     * adapted to this problem, followed by copies of it perturbed by a few mutations each.
+     *
+     * @param  count The most Schedules to create
+     * @param  gen   The source of randomness to use
+     * @return       The seed Schedules, which are empty if this problem is not warm started or
+     *               the previous schedule could not be adapted to it
+     */
+    public List<Mapping<RA, Duty>> seedMappings(int count, Random gen) {
+        ArrayList<Mapping<RA, Duty>> seeds = new ArrayList<Mapping<RA, Duty>>(count);
+        WarmStart previous = context.getWarmStart();
+        Schedule base = previous == null ? null : previous.adapt(raList, dutyList, context,
+                                                                     gen);
+        if (base == null || count < 1) {
+            return seeds;
+        }
+        base = base.withRoster(roster);
+        seeds.add(base);
+        for (int i = 1; i < count; i += 1) {
+            Schedule next = base;
+            int mutations = 1 + i % WARM_MUTATIONS;
+            for (int j = 0; j < mutations && next != null; j += 1) {
+                next = next.mutate();
+            }
+            if (next != null) {
+                seeds.add(next);
+            }
+        }
+        return seeds;
+    }
+
+    /**
+     * Counts the Duty instances two Schedules of this problem assign to different RAs.
+     *
+     * @param  first  A Schedule of this problem
+     * @param  second Another Schedule of this problem
+     * @return        The number of Duty instances whose RA differs
+     */
+    public int distance(Mapping<RA, Duty> first, Mapping<RA, Duty> second) {
+        return ((Schedule) first).distance((Schedule) second);
+    }
+
+    /**
+     * Gets the number of Duty instances this problem assigns.
+     *
+     * @return the number of Duty instances
+     */
+    public int itemCount() {
+        return dutyList.size();
+    }
+
+}
@@ -32,6 +32,9 @@ import java.util.ArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.Date;
 
+import choice_optimizer.EvolutionEngine;
+import choice_optimizer.EvolutionOptions;
+
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.json.JSONException;
@@ -44,51 +47,69 @@ import org.json.JSONException;
 public class Scheduler {
 
     private static final long NANOS_PER_SEC = 1000000000;
-    private static final double MUTATE_DEFAULT = 0.21602435146951632;
     private static final int HRS_PER_DAY = 24;
     private static final int MINS_PER_HR = 60;
     private static final int SECS_PER_MINUTE = 60;
     private static final int MILLIS_PER_SEC = 1000;
 
     static final int INVALID_ITEM_PRIORITY = 0;
-    static final int SEED_COUNT;
-    static final int EVOLVE_ITERS;
-    static final int NUM_RUNS;
-    static final int RESOURCE_FACTOR;
-    static final int ALLOWED_SEED_ATTEMPTS;
-    static final double MUTATION_CHANCE;
-    static final boolean ALLOW_ILLEGALS;
-    static final boolean ALLOW_GREEDY;
-    static final boolean CONSIDER_ADJACENTS;
-    static final boolean ANALYZE;
-    static final String DATA_FILE;
-    
-    private static ArrayList<RA> raList;
-    private static ArrayList<Duty> dutyList;
-    private static HashMap<String, Duty> dutyLookup;
-    private static double[][] analytics;
+
+    private final int windowDays;
+    private final int costCacheSize;
+    private final double mutationChance;
+    private final double changePenalty;
+    private final boolean allowIllegals;
+    private final boolean allowGreedy;
+    private final boolean considerAdjacents;
+    private final boolean reduceProblem;
+    private final boolean analyze;
+    private final String dataFile;
+    private final String warmStartFile;
+    private final String costTerms;
+    private final EvolutionOptions options;
+
+    private ArrayList<RA> raList;
+    private ArrayList<Duty> dutyList;
+    private HashMap<String, Duty> dutyLookup;
+    private Reduction reduction;
+    private ScheduleContext context;
+    private double[][] analytics;
 
     /**
-     * The following initializer reads all necessary data from the config file. If the file
-     * is absent the program uses the default global package constant values. If the file is
-     * formatted improperly, then the program logs an exception and exits.
+     * Creates a Scheduler that reads all necessary settings from a config file. If the file is
+     * absent the default values are used. If the file is formatted improperly, then the program
+     * logs an exception and exits.
+     *
+     * @param configFile The name of the config file
      */
-    static {
+    public Scheduler(String configFile) {
         int defaultsc = 30;
         int defaultei = 1000;
         int defaultnr = 20;
         int defaultrf = 10;
         int defaultasa = 1000;
-        double defaultmc = MUTATE_DEFAULT;
+        int defaultccs = 65536;
+        int defaultet = 1;
+        int defaultwd = 0;
+        double defaultmc = ScheduleContext.MUTATE_DEFAULT;
+        double defaultcp = 1.0;
+        double defaultsp = 2.0;
+        double defaultdt = 0.02;
+        double defaultrsf = 0.5;
         boolean defaultai = false;
         boolean defaultag = false;
         boolean defaultca = true;
+        boolean defaultrp = true;
+        boolean defaultss = false;
         boolean defaultv = false;
         String defaultdf = "data.json";
+        String defaultws = "";
+        String defaultsel = "truncation";
+        String defaultct = "";
         BufferedReader reader = null;
         try {
             int lineNumber = 0;
-            reader = new BufferedReader(new FileReader("scheduler.config"));
+            reader = new BufferedReader(new FileReader(configFile));
             String line = reader.readLine();
             while (line != null) {
                 String[] data = line.split("=");
@@ -128,6 +149,26 @@ public class Scheduler {
                                                                 + "positive.");
                         }
                         break;
+                    case "COST_CACHE_SIZE":
+                        defaultccs = Integer.parseInt(fieldValue);
+                        if (defaultccs < 0) {
+                            throw new IllegalArgumentException("COST_CACHE_SIZE must not be "
+                                                                + "negative.");
+                        }
+                        break;
+                    case "EVAL_THREADS":
+                        defaultet = Integer.parseInt(fieldValue);
+                        if (defaultet <= 0) {
+                            throw new IllegalArgumentException("EVAL_THREADS must be positive.");
+                        }
+                        break;
+                    case "WINDOW_DAYS":
+                        defaultwd = Integer.parseInt(fieldValue);
+                        if (defaultwd < 0) {
+                            throw new IllegalArgumentException("WINDOW_DAYS must not be "
+                                                                + "negative.");
+                        }
+                        break;
                     case "MUTATION_CHANCE":
                         defaultmc = Double.parseDouble(fieldValue);
                         if (defaultmc <= 0 || defaultmc >= 1) {
@@ -135,6 +176,41 @@ public class Scheduler {
                                                                 + "(0, 1)");
                         }
                         break;
+                    case "CHANGE_PENALTY":
+                        defaultcp = Double.parseDouble(fieldValue);
+                        if (defaultcp < 0) {
+                            throw new IllegalArgumentException("CHANGE_PENALTY must not be "
+                                                                + "negative.");
+                        }
+                        break;
+                    case "SELECTION":
+                        if (!fieldValue.matches("truncation|tournament|rank|sus")) {
+                            throw new IllegalArgumentException("SELECTION must be one of "
+                                                    + "truncation, tournament, rank or sus.");
+                        }
+                        defaultsel = fieldValue;
+                        break;
+                    case "SELECTION_PRESSURE":
+                        defaultsp = Double.parseDouble(fieldValue);
+                        if (defaultsp < 1) {
+                            throw new IllegalArgumentException("SELECTION_PRESSURE must be at "
+                                                                + "least 1.");
+                        }
+                        break;
+                    case "DIVERSITY_THRESHOLD":
+                        defaultdt = Double.parseDouble(fieldValue);
+                        if (defaultdt < 0 || defaultdt > 1) {
+                            throw new IllegalArgumentException("DIVERSITY_THRESHOLD must be "
+                                                                + "between 0 and 1.");
+                        }
+                        break;
+                    case "RESTART_FRACTION":
+                        defaultrsf = Double.parseDouble(fieldValue);
+                        if (defaultrsf <= 0 || defaultrsf >= 1) {
+                            throw new IllegalArgumentException("RESTART_FRACTION must be "
+                                                                + "between 0 and 1, exclusive.");
+                        }
+                        break;
                     case "ALLOW_ILLEGALS":
                         defaultai = Boolean.parseBoolean(fieldValue);
                         break;
@@ -144,6 +220,12 @@ public class Scheduler {
                     case "CONSIDER_ADJACENTS":
                         defaultca = Boolean.parseBoolean(fieldValue);
                         break;
+                    case "REDUCE_PROBLEM":
+                        defaultrp = Boolean.parseBoolean(fieldValue);
+                        break;
+                    case "STEADY_STATE":
+                        defaultss = Boolean.parseBoolean(fieldValue);
+                        break;
                     case "ANALYZE":
                         defaultv = Boolean.parseBoolean(fieldValue);
                         break;
@@ -155,6 +237,18 @@ public class Scheduler {
                             defaultdf = fieldValue;
                         }
                         break;
+                    case "WARM_START":
+                        if (!fieldValue.endsWith(".sched") && !fieldValue.endsWith(".json")) {
+                            throw new IllegalArgumentException("WARM_START must be a .sched or "
+                                                                + ".json schedule file.");
+                        } else {
+                            defaultws = fieldValue;
+                        }
+                        break;
+                    case "COST_TERMS":
+                        new ScheduleCost(fieldValue, true, 0.0, ScheduleCost.WEEKEND_SHARE);
+                        defaultct = fieldValue;
+                        break;
                     default:
                         throw new IllegalArgumentException(String.format("Invalid field name" 
                                     + " %s on line %d.", fieldName, lineNumber));
@@ -162,24 +256,38 @@ public class Scheduler {
                 lineNumber += 1;
                 line = reader.readLine();
             }
+            if (defaultsel.matches("rank|sus") && defaultsp > 2) {
+                throw new IllegalArgumentException("SELECTION_PRESSURE must be at most 2 for "
+                                                    + "rank and sus selection.");
+            }
         } catch (IOException e) {
             System.out.println("Using default values.");
         } catch (IllegalArgumentException e) {
             ErrorChecker.printExceptionToLog(e);
         } finally {
-            SEED_COUNT = defaultsc;
-            EVOLVE_ITERS = defaultei;
-            NUM_RUNS = defaultnr;
-            RESOURCE_FACTOR = defaultrf;
-            ALLOWED_SEED_ATTEMPTS = defaultasa;
-            MUTATION_CHANCE = defaultmc;
-            ALLOW_ILLEGALS = defaultai;
-            ALLOW_GREEDY = defaultag;
-            CONSIDER_ADJACENTS = defaultca;
-            ANALYZE = defaultv;
-            DATA_FILE = defaultdf;
-            dutyList = new ArrayList<Duty>();
-            raList = new ArrayList<RA>();
+            windowDays = defaultwd;
+            costCacheSize = defaultccs;
+            mutationChance = defaultmc;
+            changePenalty = defaultcp;
+            allowIllegals = defaultai;
+            allowGreedy = defaultag;
+            considerAdjacents = defaultca;
+            reduceProblem = defaultrp;
+            analyze = defaultv;
+            dataFile = defaultdf;
+            warmStartFile = defaultws;
+            costTerms = defaultct;
+            options = new EvolutionOptions.OptionsBuilder()
+                    .setPopulationSize(defaultsc)
+                    .setIterations(defaultei)
+                    .setRuns(defaultnr)
+                    .setSeedAttempts(defaultasa)
+                    .setSteadyState(defaultss)
+                    .setSelection(defaultsel, defaultsp)
+                    .setDiversityThreshold(defaultdt)
+                    .setRestartFraction(defaultrsf)
+                    .setEvalThreads(defaultet)
+                    .build();
             try {
                 if (reader != null) {
                     reader.close();
@@ -191,17 +299,13 @@ public class Scheduler {
     }
 
     /**
-     * Private construction to prevent instantiation.
-     */
-    private Scheduler() {
-        throw new AssertionError();
-    }
-
-    /**
-     * Reads in a JSON data file and constructs RA and Duty instances from it. 
+     * Reads in a JSON data file, constructs RA and Duty instances from it and builds the rules
+     * they are scheduled under.
      */
-    private static void parseData() {
-        JSONObject data = new JSONObject(new String(readFile()));
+    private void parseData() {
+        JSONObject data = new JSONObject(new String(readFile(dataFile)));
+        dutyList = new ArrayList<Duty>();
+        raList = new ArrayList<RA>();
         createDutyList(data.getJSONArray("dates"));
         dutyLookup = new HashMap<String, Duty>(dutyList.size());
         for (Duty duty : dutyList) {
@@ -209,13 +313,28 @@ public class Scheduler {
         }
         createRAList(data.getJSONArray("residentAssistants"));
         try {
-            ErrorChecker.evalPrefs(raList, dutyList);
-            ErrorChecker.checkConsistency();
-            if (!ALLOW_ILLEGALS) {
-                ErrorChecker.checkImpossible();
+            WarmStart warmStart = null;
+            if (!warmStartFile.isEmpty()) {
+                warmStart = new WarmStart(readPrevious(readFile(warmStartFile)));
+            }
+            context = new ScheduleContext.ContextBuilder(new ScheduleCost(costTerms,
+                            considerAdjacents, changePenalty, ScheduleCost.weekendShare(dutyList)))
+                    .setCostCache(costCacheSize > 0 ? new CostCache(costCacheSize) : null)
+                    .setConflictGraph(new ConflictGraph(dutyList))
+                    .setWarmStart(warmStart)
+                    .setMutationChance(mutationChance)
+                    .setAllowIllegals(allowIllegals)
+                    .build();
+            ErrorChecker.PreferenceCounts counts = ErrorChecker.evalPrefs(raList, dutyList);
+            counts.checkConsistency();
+            if (!allowIllegals) {
+                counts.checkImpossible();
             } 
-            if (!ALLOW_GREEDY) {
-                ErrorChecker.checkGreedy(raList);
+            if (!allowGreedy) {
+                counts.checkGreedy(raList);
+            }
+            if (reduceProblem) {
+                reduction = new Reduction(raList, dutyList, allowIllegals);
             }
         } catch (RuntimeException e) {
             ErrorChecker.printExceptionToLog(e);
@@ -225,20 +344,21 @@ public class Scheduler {
     /**
      * Gets the content of a plain text file.
      * 
-     * @return The contents of the data file as a String
+     * @param fileName The name of the file to read
+     * @return The contents of the file as a String
      */
-    private static String readFile() {
+    private static String readFile(String fileName) {
         BufferedReader reader = null;
         String result = "";
         try {
-            File dataFile = new File(DATA_FILE);
+            File dataFile = new File(fileName);
             if (!dataFile.exists()) {
-                throw new IOException("Missing data file: " + DATA_FILE);
+                throw new IOException("Missing data file: " + fileName);
             }
             reader = new BufferedReader(new FileReader(dataFile));
             String line = reader.readLine();
             while (line != null) {
-                result += line;
+                result += line + "\n";
                 line = reader.readLine();
             }
         } catch (IOException e) {
@@ -253,17 +373,69 @@ public class Scheduler {
         return result;
     }
 
+    /**
+     * Reads the assignments of a previous schedule. JSON schedules hold a "schedule" array of
+     * objects with a "name" and a "duties" array of duty strings. Otherwise the contents are
+     * read in the format written by printResults(). Duty instances that are no longer being
+     * scheduled are skipped.
+     *
+     * @param contents The contents of a previous schedule file
+     * @return A map from RA names to the Duty instances they were assigned
+     */
+    private HashMap<String, ArrayList<Duty>> readPrevious(String contents) {
+        HashMap<String, ArrayList<Duty>> previous = new HashMap<String, ArrayList<Duty>>();
+        if (warmStartFile.endsWith(".json")) {
+            JSONArray schedule = new JSONObject(contents).getJSONArray("schedule");
+            for (int i = 0; i < schedule.length(); i += 1) {
+                JSONObject ra = schedule.getJSONObject(i);
+                ArrayList<Duty> duties = new ArrayList<Duty>();
+                JSONArray assigned = ra.getJSONArray("duties");
+                for (int j = 0; j < assigned.length(); j += 1) {
+                    Duty duty = dutyLookup.get(assigned.getString(j));
+                    if (duty != null) {
+                        duties.add(duty);
+                    }
+                }
+                previous.put(ra.getString("name"), duties);
+            }
+        } else {
+            String[] lines = contents.split("\n");
+            int i = 0;
+            while (i < lines.length && !lines[i].startsWith("Duty Assignments:")) {
+                i += 1;
+            }
+            ArrayList<Duty> current = null;
+            for (i += 1; i < lines.length; i += 1) {
+                String line = lines[i];
+                if (line.trim().isEmpty()) {
+                    continue;
+                } else if (line.startsWith("\t")) {
+                    Duty duty = dutyLookup.get(line.trim());
+                    if (current != null && duty != null) {
+                        current.add(duty);
+                    }
+                } else {
+                    int nameEnd = line.lastIndexOf(' ');
+                    current = new ArrayList<Duty>();
+                    previous.put(nameEnd < 0 ? line : line.substring(0, nameEnd), current);
+                }
+            }
+        }
+        return previous;
+    }
+
     /**
      * Creates an ArrayList of RA instances from a JSONArray of encoded data
      * 
      * @param jsonRAs A JSONArray contains information about RAs
      */
-    private static void createRAList(JSONArray jsonRAs) {
+    private void createRAList(JSONArray jsonRAs) {
         try {
             for (int i = 0; i < jsonRAs.length(); i += 1) {
                 JSONObject ra = jsonRAs.getJSONObject(i);
                 RA.RABuilder builder = new RA.RABuilder(ra.getString("name"), dutyList.size(), 
                                                   ra.getInt("duties"));
+                builder.setOrdinal(i);
                 JSONArray prefs = ra.getJSONArray("preferences");
                 for (int j = 0; j < prefs.length(); j += 1) {
                     JSONObject pref = prefs.getJSONObject(j);
@@ -282,12 +454,12 @@ public class Scheduler {
      * 
      * @param jsonDuties A JSONArray contains information about Duty instances
      */
-    private static void createDutyList(JSONArray jsonDuties) {
+    private void createDutyList(JSONArray jsonDuties) {
         try {
             for (int i = 0; i < jsonDuties.length(); i += 1) {
                 JSONObject duty = jsonDuties.getJSONObject(i);
                 dutyList.add(new Duty(duty.getInt("year"), duty.getInt("month"), 
-                                      duty.getInt("day")));
+                                      duty.getInt("day"), i));
             }
         } catch (JSONException e) {
             ErrorChecker.printExceptionToLog(e);
@@ -295,26 +467,27 @@ public class Scheduler {
     }
 
     /**
-     * Runs the choice optimization algorithm on the data and finds a good schedule
+     * Reads the data file and runs the choice optimization algorithm on it to find a good
+     * schedule. Each run is evolved by an EvolutionEngine.
      * 
      * @return The best schedule found
      */
-    private static Schedule run() {
-        Schedule best = null;
-        Schedule localBest = null;
-        Generation thisGen = null;
-        if (ANALYZE) {
-            analytics = new double[NUM_RUNS][];
+    public Schedule run() {
+        parseData();
+        if (reduction != null && reduction.isComplete()) {
+            return reduction.matchedSchedule(context);
         }
-        for (int i = 0; i < NUM_RUNS; i += 1) {
-            thisGen = new Generation();
-            thisGen.seed(raList, dutyList);
-            localBest = thisGen.evolve();
-            if (ANALYZE) {
-                analytics[i] = thisGen.getHistory();
-            }
-            if (best == null || localBest.getCost() < best.getCost()) {
-                best = localBest;
+        ArrayList<RA> ras = reduction == null ? raList : reduction.getRAs();
+        Schedule best = null;
+        if (windowDays > 0) {
+            best = new Decomposition(ras, dutyList, windowDays, context).solve(options);
+        } else {
+            EvolutionEngine<RA, Duty> engine
+                    = new EvolutionEngine<RA, Duty>(new ScheduleProblem(ras, dutyList, context),
+                                                    options);
+            best = (Schedule) engine.solve();
+            if (analyze) {
+                analytics = engine.getHistories();
             }
         }
         return best;
@@ -343,13 +516,25 @@ public class Scheduler {
      * @param best The best Schedule found during the run
      * @param runTimeReport A String describing the runtime of the algorithm
      */
-    private static void printResults(Schedule best, String runTimeReport) {
+    private void printResults(Schedule best, String runTimeReport) {
         String resultsFile = "schedule_" 
                         + (new SimpleDateFormat("MM-dd-yyyy-hh:mm")).format(new Date()) + ".sched";
         PrintWriter dataOut = null;
         try {
             dataOut = new PrintWriter(resultsFile);
             dataOut.println(runTimeReport);
+            if (reduction != null) {
+                dataOut.println(String.format("Fixed %d of %d duties and dropped %d dominated "
+                                              + "choices before optimization.",
+                                              reduction.getFixedCount(), dutyList.size(),
+                                              reduction.getPrunedCount()));
+            }
+            CostCache costCache = context.getCostCache();
+            if (costCache != null) {
+                dataOut.println(String.format("Cost cache: %d hits, %d misses (%.1f%% hit rate).",
+                                              costCache.getHits(), costCache.getMisses(),
+                                              100 * costCache.hitRate()));
+            }
             dataOut.println("Duty Assignments:\n\n");
             dataOut.println(best.toString());
         } catch (IOException e) {
@@ -362,7 +547,7 @@ public class Scheduler {
     /**
      * Prints analytics data to a space separated file called analytics.txt
      */
-    private static void printAnalytics() {
+    private void printAnalytics() {
         String analyticsFile = "analytics.txt";
         PrintWriter analysisOut = null;
         try {
@@ -387,12 +572,12 @@ public class Scheduler {
      */
     public static void main(String[] args) {
         try {
+            Scheduler scheduler = new Scheduler("scheduler.config");
             long timeElapsed = System.nanoTime();
-            parseData();
-            Schedule best = run();
-            printResults(best, runTime(System.nanoTime() - timeElapsed));
-            if (ANALYZE) {
-                printAnalytics();
+            Schedule best = scheduler.run();
+            scheduler.printResults(best, runTime(System.nanoTime() - timeElapsed));
+            if (scheduler.analyze && scheduler.analytics != null) {
+                scheduler.printAnalytics();
             }
         } catch (Exception e) {
             ErrorChecker.printExceptionToLog(e);
@@ -0,0 +1,241 @@
+package duty_scheduler;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+import java.util.Arrays;
+
+/**
+ * A tournament tree over a fixed number of values, giving their sum and their maximum. Each
+ * internal node holds the sum and the maximum of its two children, so changing one value updates
+ * only the nodes above it, and the effect of changing up to two values can be queried without
+ * changing anything by walking the two paths to the root. Both take O(log n) time.
+ *
+ * The values are always added in the same tree shape, so the same values always give exactly the
+ * same sum, whatever order they were set in. A Schedule relies on this to give the same cost to
+ * the same assignments whether it was costed from scratch or by moves.
+ *
+ * @author Matthew Mussomele
+ */
+public class TournamentTree {
+
+    private final int size;
+    private final int leaves;
+    private final double[] sums;
+    private final double[] maxima;
+
+    /**
+     * Creates a TournamentTree with every value 0.
+     *
+     * @param  size The number of values
+     */
+    public TournamentTree(int size) {
+        this.size = size;
+        int capacity = 1;
+        while (capacity < size) {
+            capacity *= 2;
+        }
+        leaves = capacity;
+        sums = new double[2 * leaves];
+        maxima = new double[2 * leaves];
+        Arrays.fill(maxima, leaves + size, 2 * leaves, Double.NEGATIVE_INFINITY);
+        for (int node = leaves - 1; node > 0; node -= 1) {
+            maxima[node] = Math.max(maxima[2 * node], maxima[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Creates a copy of a TournamentTree.
+     *
+     * @param  other The TournamentTree to copy
+     */
+    public TournamentTree(TournamentTree other) {
+        size = other.size;
+        leaves = other.leaves;
+        sums = other.sums.clone();
+        maxima = other.maxima.clone();
+    }
+
+    /**
+     * Gets the number of values in this TournamentTree.
+     *
+     * @return the number of values
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets a value.
+     *
+     * @param  index The index of the value
+     * @return       The value at that index
+     */
+    public double get(int index) {
+        return sums[leaves + checkIndex(index)];
+    }
+
+    /**
+     * Changes a value, updating the sums and maxima above it.
+     *
+     * @param index The index of the value
+     * @param value The new value
+     */
+    public void set(int index, double value) {
+        int node = leaves + checkIndex(index);
+        sums[node] = value;
+        maxima[node] = value;
+        for (node /= 2; node > 0; node /= 2) {
+            sums[node] = sums[2 * node] + sums[2 * node + 1];
+            maxima[node] = Math.max(maxima[2 * node], maxima[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Replaces every value at once, rebuilding the tree in linear time.
+     *
+     * @param values The new values, at least as many as the size of this tree
+     */
+    public void load(double[] values) {
+        System.arraycopy(values, 0, sums, leaves, size);
+        System.arraycopy(values, 0, maxima, leaves, size);
+        for (int node = leaves - 1; node > 0; node -= 1) {
+            sums[node] = sums[2 * node] + sums[2 * node + 1];
+            maxima[node] = Math.max(maxima[2 * node], maxima[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Gets the sum of the values.
+     *
+     * @return the sum of every value
+     */
+    public double sum() {
+        return sums[1];
+    }
+
+    /**
+     * Gets the largest value.
+     *
+     * @return the maximum value, or negative infinity if there are no values
+     */
+    public double max() {
+        return maxima[1];
+    }
+
+    /**
+     * Gets the sum the values would have if up to two of them were changed, without changing
+     * them. The sum is exactly the one set would give.
+     *
+     * @param  i      The index of the first changed value, or -1
+     * @param  iValue The new first value
+     * @param  j      The index of the second changed value, or -1. If it equals i, iValue is
+     *                used.
+     * @param  jValue The new second value
+     * @return        The sum with the changed values
+     */
+    public double sumWith(int i, double iValue, int j, double jValue) {
+        return query(sums, false, i, iValue, j, jValue);
+    }
+
+    /**
+     * Gets the largest value there would be if up to two of the values were changed, without
+     * changing them.
+     *
+     * @param  i      The index of the first changed value, or -1
+     * @param  iValue The new first value
+     * @param  j      The index of the second changed value, or -1. If it equals i, iValue is
+     *                used.
+     * @param  jValue The new second value
+     * @return        The maximum with the changed values
+     */
+    public double maxWith(int i, double iValue, int j, double jValue) {
+        return query(maxima, true, i, iValue, j, jValue);
+    }
+
+    /**
+     * Walks from up to two changed leaves to the root, combining the changed values with the
+     * unchanged siblings along the way and merging the two paths where they meet.
+     *
+     * @param  nodes  The sums or maxima of the tree
+     * @param  max    true to combine by maximum, false to combine by sum
+     * @param  i      The index of the first changed value, or -1
+     * @param  iValue The new first value
+     * @param  j      The index of the second changed value, or -1
+     * @param  jValue The new second value
+     * @return        The value the root would have
+     */
+    private double query(double[] nodes, boolean max, int i, double iValue, int j,
+                         double jValue) {
+        if (i < 0) {
+            if (j < 0) {
+                return nodes[1];
+            }
+            i = j;
+            iValue = jValue;
+        } else if (j < 0) {
+            j = i;
+        }
+        int a = leaves + checkIndex(i);
+        int b = leaves + checkIndex(j);
+        double aValue = iValue;
+        double bValue = jValue;
+        while (a != b) {
+            if ((a ^ 1) == b) {
+                aValue = combine(max, aValue, bValue);
+            } else {
+                aValue = combine(max, aValue, nodes[a ^ 1]);
+                bValue = combine(max, bValue, nodes[b ^ 1]);
+            }
+            a /= 2;
+            b /= 2;
+        }
+        for (; a > 1; a /= 2) {
+            aValue = combine(max, aValue, nodes[a ^ 1]);
+        }
+        return aValue;
+    }
+
+    /**
+     * Combines the values of two sibling nodes. Addition of two doubles does not depend on their
+     * order, so sums match the ones set computes exactly.
+     *
+     * @param  max true to take the maximum, false to take the sum
+     * @param  x   The value of one child
+     * @param  y   The value of the other child
+     * @return     The value of the parent
+     */
+    private static double combine(boolean max, double x, double y) {
+        return max ? Math.max(x, y) : x + y;
+    }
+
+    /**
+     * Checks that an index is in range.
+     *
+     * @param  index The index to check
+     * @return       The index
+     */
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(String.format("Index %d is out of bounds for %d "
+                                                              + "values.", index, size));
+        }
+        return index;
+    }
+
+}
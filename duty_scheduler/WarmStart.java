@@ -0,0 +1,176 @@
+package duty_scheduler;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+
+/**
+ * A previously published Schedule used to warm start the genetic algorithm after the input has
+ * changed. It is adapted to the new input to seed populations, and the Duty instances that
+ * change hands relative to it can be penalized.
+ *
+ * @author Matthew Mussomele
+ */
+public class WarmStart {
+
+    private HashMap<String, ArrayList<Duty>> previous;
+    private HashMap<Duty, String> previousOwners;
+
+    /**
+     * Creates a WarmStart from the assignments of a previous Schedule.
+     *
+     * @param  previous A map from RA names to the Duty instances they were assigned
+     */
+    public WarmStart(HashMap<String, ArrayList<Duty>> previous) {
+        this.previous = new HashMap<String, ArrayList<Duty>>(previous);
+        previousOwners = new HashMap<Duty, String>();
+        for (String name : previous.keySet()) {
+            for (Duty duty : previous.get(name)) {
+                previousOwners.put(duty, name);
+            }
+        }
+    }
+
+    /**
+     * Counts the Duty instances in a list that were previously assigned to a different RA.
+     * Duty instances that were not in the previous Schedule are not counted.
+     *
+     * @param  ra     The RA the Duty instances are assigned to now
+     * @param  duties The Duty instances assigned to the RA
+     * @return        The number of duties that changed hands
+     */
+    public int changes(RA ra, Collection<Duty> duties) {
+        int changed = 0;
+        for (Duty duty : duties) {
+            String owner = previousOwners.get(duty);
+            if (owner != null && !owner.equals(ra.toString())) {
+                changed += 1;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Builds a Schedule of the given RAs and Duty instances that keeps as much of the previous
+     * Schedule as the new input allows. Previous assignments are kept if the Duty still exists
+     * and the RA can still take it, up to the RA's required number of duties. The remaining
+     * duties are handed to RAs with room left, moving one kept Duty if that is the only way to
+     * make room. The remaining duties are handed out in a random order drawn from the given
+     * source, so an adapted Schedule can be reproduced.
+     *
+     * @param  ras     The RAs to schedule
+     * @param  duties  The Duty instances to assign
+     * @param  context The rules of the problem the Schedule belongs to
+     * @param  gen     The source of randomness to use
+     * @return         The adapted Schedule, or null if it could not be completed
+     */
+    public Schedule adapt(ArrayList<RA> ras, ArrayList<Duty> duties, ScheduleContext context,
+                          Random gen) {
+        boolean allowIllegals = context.allowsIllegals();
+        HashSet<Duty> open = new HashSet<Duty>(duties);
+        HashMap<RA, ArrayList<Duty>> lists = new HashMap<RA, ArrayList<Duty>>(ras.size());
+        for (RA ra : ras) {
+            ArrayList<Duty> kept = new ArrayList<Duty>(ra.requiredDuties());
+            ArrayList<Duty> old = previous.get(ra.toString());
+            if (old != null) {
+                for (Duty duty : old) {
+                    if (kept.size() < ra.requiredDuties() && open.contains(duty)
+                            && (allowIllegals || ra.eligibleItem(duty))) {
+                        kept.add(duty);
+                        open.remove(duty);
+                    }
+                }
+            }
+            lists.put(ra, kept);
+        }
+        ArrayList<Duty> leftover = new ArrayList<Duty>();
+        for (Duty duty : duties) {
+            if (open.contains(duty)) {
+                leftover.add(duty);
+            }
+        }
+        Collections.shuffle(leftover, gen);
+        for (Duty duty : leftover) {
+            if (!place(duty, ras, lists, allowIllegals)) {
+                return null;
+            }
+        }
+        Schedule.ScheduleBuilder builder = new Schedule.ScheduleBuilder(ras.size(), duties.size(),
+                                                                        context);
+        for (RA ra : ras) {
+            builder.putAssignmentList(ra, lists.get(ra));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Gives a Duty to an RA with room left. If every RA that can take the Duty is full, one of
+     * their duties is moved to an RA with room left that can take it.
+     *
+     * @param  duty          The Duty to place
+     * @param  ras           The RAs being scheduled
+     * @param  lists         The assignments made so far
+     * @param  allowIllegals Whether or not RAs may be assigned duties they labeled undoable
+     * @return               true if the Duty was placed
+     */
+    private boolean place(Duty duty, ArrayList<RA> ras, HashMap<RA, ArrayList<Duty>> lists,
+                          boolean allowIllegals) {
+        for (RA ra : ras) {
+            if (hasRoom(ra, lists) && (allowIllegals || ra.eligibleItem(duty))) {
+                lists.get(ra).add(duty);
+                return true;
+            }
+        }
+        for (RA full : ras) {
+            if (!allowIllegals && !full.eligibleItem(duty)) {
+                continue;
+            }
+            ArrayList<Duty> fullList = lists.get(full);
+            for (int i = 0; i < fullList.size(); i += 1) {
+                Duty moving = fullList.get(i);
+                for (RA open : ras) {
+                    if (hasRoom(open, lists) && (allowIllegals || open.eligibleItem(moving))) {
+                        lists.get(open).add(moving);
+                        fullList.set(i, duty);
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if an RA still needs more duties.
+     *
+     * @param  ra    The RA to check
+     * @param  lists The assignments made so far
+     * @return       true if the RA has fewer duties than it requires
+     */
+    private boolean hasRoom(RA ra, HashMap<RA, ArrayList<Duty>> lists) {
+        return lists.get(ra).size() < ra.requiredDuties();
+    }
+
+}
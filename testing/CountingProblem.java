@@ -0,0 +1,94 @@
+package testing;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import choice_optimizer.Mapping;
+import choice_optimizer.Problem;
+import duty_scheduler.Duty;
+import duty_scheduler.RA;
+import duty_scheduler.ScheduleProblem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A Problem that seeds populations with fixed Mappings and counts how many random Mappings an
+ * EvolutionEngine asks it for. It is kept out of the test classes because the test launcher runs
+ * every class whose name starts with Test, nested classes included.
+ *
+ * @author Matthew Mussomele
+ */
+public class CountingProblem implements Problem<RA, Duty> {
+
+    private final ScheduleProblem problem;
+    private final List<Mapping<RA, Duty>> seeds;
+    private int randomCalls;
+
+    /**
+     * Creates a CountingProblem.
+     *
+     * @param  problem The Problem to create random Mappings with
+     * @param  seeds   The Mappings every population is seeded with
+     */
+    public CountingProblem(ScheduleProblem problem, List<Mapping<RA, Duty>> seeds) {
+        this.problem = problem;
+        this.seeds = seeds;
+    }
+
+    /**
+     * Gets the number of random Mappings created so far.
+     *
+     * @return the number of calls to randomMapping
+     */
+    public int getRandomCalls() {
+        return randomCalls;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Mapping<RA, Duty> randomMapping(Random gen) {
+        randomCalls += 1;
+        return problem.randomMapping(gen);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public List<Mapping<RA, Duty>> seedMappings(int count, Random gen) {
+        return new ArrayList<Mapping<RA, Duty>>(seeds.subList(0, Math.min(count, seeds.size())));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int distance(Mapping<RA, Duty> first, Mapping<RA, Duty> second) {
+        return problem.distance(first, second);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int itemCount() {
+        return problem.itemCount();
+    }
+
+}
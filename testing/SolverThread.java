@@ -0,0 +1,64 @@
+package testing;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import choice_optimizer.EvolutionEngine;
+import choice_optimizer.EvolutionOptions;
+import choice_optimizer.Mapping;
+import duty_scheduler.Duty;
+import duty_scheduler.RA;
+import duty_scheduler.ScheduleProblem;
+
+/**
+ * A thread that solves a ScheduleProblem with its own EvolutionEngine. It is kept out of the
+ * test classes because the test launcher runs every class whose name starts with Test, nested
+ * classes included.
+ *
+ * @author Matthew Mussomele
+ */
+public class SolverThread extends Thread {
+
+    private final EvolutionEngine<RA, Duty> engine;
+    private Mapping<RA, Duty> best;
+
+    /**
+     * Creates a SolverThread.
+     *
+     * @param  problem The Problem to solve
+     * @param  options The options of the thread's engine
+     */
+    public SolverThread(ScheduleProblem problem, EvolutionOptions options) {
+        engine = new EvolutionEngine<RA, Duty>(problem, options);
+    }
+
+    @Override public void run() {
+        best = engine.solve();
+    }
+
+    /**
+     * Gets the best Mapping found, once the thread has been joined.
+     *
+     * @return The best Mapping found
+     */
+    public Mapping<RA, Duty> getBest() {
+        return best;
+    }
+
+}
@@ -0,0 +1,87 @@
+package testing;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import duty_scheduler.ConflictGraph;
+import duty_scheduler.Duty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * JUnit Testing Class for the duty_scheduler.ConflictGraph class.
+ *
+ * @author Matthew Mussomele
+ */
+public class TestConflictGraph {
+
+    private ArrayList<Duty> dutyList;
+    private ConflictGraph graph;
+
+    /**
+     * Builds a ConflictGraph of duties on the 1st, 2nd, 3rd, 5th and 8th of March, across the
+     * daylight saving change, listed out of order.
+     */
+    @Before public void setUp() {
+        int[] days = {5, 1, 8, 3, 2};
+        dutyList = new ArrayList<Duty>();
+        for (int i = 0; i < days.length; i += 1) {
+            dutyList.add(new Duty(2015, 2, days[i], i));
+        }
+        graph = new ConflictGraph(dutyList);
+    }
+
+    /**
+     * Tests that only duties within a day of each other are neighbours.
+     */
+    @Test public void testNeighbours() {
+        assertArrayEquals(new int[0], graph.neighbours(dutyList.get(0)));
+        assertArrayEquals(new int[] {4}, graph.neighbours(dutyList.get(1)));
+        assertArrayEquals(new int[0], graph.neighbours(dutyList.get(2)));
+        assertArrayEquals(new int[] {4}, graph.neighbours(dutyList.get(3)));
+        assertArrayEquals(new int[] {1, 3}, graph.neighbours(dutyList.get(4)));
+        assertFalse(graph.covers(new Duty(2015, 2, 9)));
+    }
+
+    /**
+     * Tests that conflicts are counted the same whatever order the duties are listed in, and
+     * the same as by sweeping their days.
+     */
+    @Test public void testOrderIndependent() {
+        ArrayList<Duty> held = new ArrayList<Duty>(dutyList);
+        for (int i = 0; i < 10; i += 1) {
+            Collections.shuffle(held);
+            assertEquals(2, graph.conflicts(held));
+            assertEquals(2, ConflictGraph.sweep(held));
+        }
+        held = new ArrayList<Duty>(Arrays.asList(dutyList.get(1), dutyList.get(3),
+                                                 dutyList.get(0)));
+        assertEquals(0, graph.conflicts(held));
+        held.add(new Duty(2015, 2, 4));
+        assertEquals(2, graph.conflicts(held));
+        assertEquals(2, ConflictGraph.sweep(held));
+    }
+
+}
@@ -0,0 +1,102 @@
+package testing;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import duty_scheduler.RA;
+import duty_scheduler.RA.RABuilder;
+import duty_scheduler.Duty;
+import duty_scheduler.CostCache;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * JUnit Testing Class for the duty_scheduler.CostCache class.
+ *
+ * @author Matthew Mussomele
+ */
+public class TestCostCache {
+
+    private static final int THIS_YEAR = 2015;
+
+    private ArrayList<Duty> dutyList;
+    private RA first;
+    private RA twin;
+
+    /**
+     * Builds six duties and two different RAs that share a name.
+     */
+    @Before public void setUp() {
+        dutyList = new ArrayList<Duty>();
+        for (int i = 0; i < 6; i += 1) {
+            dutyList.add(new Duty(THIS_YEAR, 1, i + 1));
+        }
+        first = new RABuilder("RA0", 6, 3).build();
+        twin = new RABuilder("RA0", 6, 3).build();
+    }
+
+    /**
+     * Tests that a cost is found again for the same RA and equal assignments only.
+     */
+    @Test public void testLookup() {
+        CostCache cache = new CostCache(16);
+        ArrayList<Duty> duties = new ArrayList<Duty>(dutyList.subList(0, 3));
+        long fingerprint = CostCache.fingerprint(duties);
+        assertTrue(Double.isNaN(cache.get(first, duties, fingerprint)));
+        cache.put(first, duties, fingerprint, 2.5);
+        ArrayList<Duty> same = new ArrayList<Duty>(duties);
+        assertEquals(2.5, cache.get(first, same, CostCache.fingerprint(same)), 0.0);
+        assertTrue(Double.isNaN(cache.get(twin, duties, fingerprint)));
+        ArrayList<Duty> reordered = new ArrayList<Duty>(duties);
+        reordered.add(reordered.remove(0));
+        assertTrue(Double.isNaN(cache.get(first, reordered, CostCache.fingerprint(reordered))));
+        assertEquals(1, cache.getHits());
+        assertEquals(3, cache.getMisses());
+    }
+
+    /**
+     * Tests that the cache stays within its capacity.
+     */
+    @Test public void testBounded() {
+        CostCache cache = new CostCache(4);
+        ArrayList<ArrayList<Duty>> lists = new ArrayList<ArrayList<Duty>>();
+        for (int i = 0; i < dutyList.size(); i += 1) {
+            for (int j = 0; j < dutyList.size(); j += 1) {
+                ArrayList<Duty> duties = new ArrayList<Duty>();
+                duties.add(dutyList.get(i));
+                duties.add(dutyList.get(j));
+                lists.add(duties);
+                cache.put(first, duties, CostCache.fingerprint(duties), i + j);
+            }
+        }
+        int found = 0;
+        for (ArrayList<Duty> duties : lists) {
+            if (!Double.isNaN(cache.get(first, duties, CostCache.fingerprint(duties)))) {
+                found += 1;
+            }
+        }
+        assertTrue(found <= 4);
+        assertTrue(found > 0);
+    }
+
+}
@@ -0,0 +1,136 @@
+package testing;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import choice_optimizer.CostModel;
+import choice_optimizer.CostModel.ModelBuilder;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.MutableCallSite;
+import java.util.LinkedHashMap;
+
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * JUnit Testing Class for the choice_optimizer.CostModel class.
+ *
+ * @author Matthew Mussomele
+ */
+public class TestCostModel {
+
+    private ModelBuilder builder;
+
+    /**
+     * Divides one value by another, as a cost term.
+     *
+     * @param  x The dividend
+     * @param  y The divisor
+     * @return   x / y
+     */
+    public static double ratio(double x, double y) {
+        return x / y;
+    }
+
+    /**
+     * Defines a ratio term and a pass through term over three features.
+     */
+    @Before public void setUp() throws ReflectiveOperationException {
+        MethodHandle ratio = MethodHandles.lookup().findStatic(TestCostModel.class, "ratio",
+                MethodType.methodType(double.class, double.class, double.class));
+        builder = new ModelBuilder("a", "b", "c");
+        builder.define("ratio", ratio, "c", "a")
+               .define("b", MethodHandles.identity(double.class), "b");
+    }
+
+    /**
+     * Tests that terms take their own features and are summed with their weights.
+     */
+    @Test public void testEvaluate() throws Throwable {
+        CostModel model = builder.setWeight("ratio", 2.0).setWeight("b", 1.0).build();
+        assertEquals(2.0 * 9.0 / 3.0 + 5.0,
+                     (double) model.evaluator().invokeExact(3.0, 5.0, 9.0), 0.0);
+        assertEquals(2.0, model.weight("ratio"), 0.0);
+        assertEquals("ratio:2.0,b:1.0", model.toString());
+        model = builder.setWeight("ratio", 0.0).build();
+        assertEquals(5.0, (double) model.evaluator().invokeExact(3.0, 5.0, 9.0), 0.0);
+        assertEquals(0.0, model.weight("ratio"), 0.0);
+        model = builder.setWeight("b", 0.0).build();
+        assertEquals(0.0, (double) model.evaluator().invokeExact(3.0, 5.0, 9.0), 0.0);
+    }
+
+    /**
+     * Tests that a call site bound to a model evaluates it, and that only sites of the
+     * evaluator's type can be bound.
+     */
+    @Test public void testBindTo() throws Throwable {
+        CostModel model = builder.setWeight("ratio", 2.0).setWeight("b", 1.0).build();
+        MutableCallSite site = new MutableCallSite(model.evaluator().type());
+        model.bindTo(site);
+        assertEquals(2.0 * 9.0 / 3.0 + 5.0,
+                     (double) site.dynamicInvoker().invokeExact(3.0, 5.0, 9.0), 0.0);
+        try {
+            model.bindTo(new MutableCallSite(MethodType.methodType(double.class, double.class)));
+            fail("A call site of another type should not be bound.");
+        } catch (IllegalArgumentException e) {
+            assertEquals(2.0 * 9.0 / 3.0 + 5.0,
+                         (double) site.dynamicInvoker().invokeExact(3.0, 5.0, 9.0), 0.0);
+        }
+    }
+
+    /**
+     * Tests that weights are read from name:weight lists.
+     */
+    @Test public void testParseWeights() {
+        LinkedHashMap<String, Double> weights = CostModel.parseWeights(" ratio : 1.5,b:0 ");
+        assertEquals(2, weights.size());
+        assertEquals(1.5, weights.get("ratio"), 0.0);
+        assertEquals(0.0, weights.get("b"), 0.0);
+        assertTrue(CostModel.parseWeights("").isEmpty());
+    }
+
+    /**
+     * Tests that malformed weight lists are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadWeights() {
+        CostModel.parseWeights("ratio=1");
+    }
+
+    /**
+     * Tests that weights can only be given to defined terms.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownTerm() {
+        builder.setWeight("missing", 1.0);
+    }
+
+    /**
+     * Tests that terms can only use declared features.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownFeature() {
+        builder.define("d", MethodHandles.identity(double.class), "d");
+    }
+
+}
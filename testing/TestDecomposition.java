@@ -0,0 +1,106 @@
+package testing;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import duty_scheduler.RA;
+import duty_scheduler.RA.RABuilder;
+import duty_scheduler.Duty;
+import duty_scheduler.Decomposition;
+import duty_scheduler.ScheduleContext;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * JUnit Testing Class for the duty_scheduler.Decomposition class.
+ *
+ * @author Matthew Mussomele
+ */
+public class TestDecomposition {
+
+    private static final int THIS_YEAR = 2015;
+    private static final int DAYS = 28;
+
+    private ArrayList<RA> raList;
+    private ArrayList<Duty> dutyList;
+
+    /**
+     * Builds four RAs over four weeks of duties. RA0 cannot do any duty in the first week.
+     */
+    @Before public void setUp() {
+        dutyList = new ArrayList<Duty>();
+        for (int i = 0; i < DAYS; i += 1) {
+            dutyList.add(new Duty(THIS_YEAR, 1, i + 1));
+        }
+        raList = new ArrayList<RA>();
+        for (int r = 0; r < 4; r += 1) {
+            RABuilder builder = new RABuilder(String.format("RA%d", r), DAYS, DAYS / 4);
+            int rank = 1;
+            for (int d = 0; d < DAYS; d += 1) {
+                if (r == 0 && d < 7) {
+                    builder.putPreference(dutyList.get(d), 0);
+                } else {
+                    builder.putPreference(dutyList.get(d), rank);
+                    rank += 1;
+                }
+            }
+            raList.add(builder.build());
+        }
+    }
+
+    /**
+     * Tests that windows cover the term and that quotas add up by RA and by window.
+     */
+    @Test public void testQuotas() {
+        Decomposition weekly = new Decomposition(raList, dutyList, 7, ScheduleContext.DEFAULT);
+        assertEquals(4, weekly.getWindowCount());
+        for (int r = 0; r < raList.size(); r += 1) {
+            int total = 0;
+            for (int w = 0; w < weekly.getWindowCount(); w += 1) {
+                total += weekly.getQuota(r, w);
+            }
+            assertEquals(raList.get(r).requiredDuties(), total);
+        }
+        for (int w = 0; w < weekly.getWindowCount(); w += 1) {
+            int total = 0;
+            for (int r = 0; r < raList.size(); r += 1) {
+                total += weekly.getQuota(r, w);
+            }
+            assertEquals(7, total);
+        }
+        assertEquals(0, weekly.getQuota(0, 0));
+    }
+
+    /**
+     * Tests that quotas are spread over the windows when preferences allow it.
+     */
+    @Test public void testBalanced() {
+        Decomposition weekly = new Decomposition(raList, dutyList, 7, ScheduleContext.DEFAULT);
+        for (int r = 1; r < raList.size(); r += 1) {
+            for (int w = 1; w < weekly.getWindowCount(); w += 1) {
+                assertTrue(weekly.getQuota(r, w) >= 1 && weekly.getQuota(r, w) <= 3);
+            }
+        }
+    }
+
+}
@@ -69,6 +69,19 @@ public class TestDuty {
     }
 
 
+    /**
+     * Test that only Friday and Saturday duties are weekend duties.
+     */
+    @Test public void testWeekend() {
+        assertFalse(feb_first.isWeekend());
+        assertFalse(feb_fourth.isWeekend());
+        assertFalse(new Duty(THIS_YEAR, 1, 5).isWeekend());
+        assertTrue(new Duty(THIS_YEAR, 1, 6).isWeekend());
+        assertTrue(new Duty(THIS_YEAR, 1, 7).isWeekend());
+        assertFalse(new Duty(THIS_YEAR, 1, 8).isWeekend());
+    }
+
+
     /**
      * Test that illegal duties are properly handled.
      */
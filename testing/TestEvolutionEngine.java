@@ -0,0 +1,174 @@
+package testing;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import choice_optimizer.EvolutionEngine;
+import choice_optimizer.EvolutionOptions;
+import choice_optimizer.EvolutionOptions.OptionsBuilder;
+import choice_optimizer.Mapping;
+import duty_scheduler.Duty;
+import duty_scheduler.RA;
+import duty_scheduler.RA.RABuilder;
+import duty_scheduler.Schedule;
+import duty_scheduler.ScheduleContext;
+import duty_scheduler.ScheduleProblem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * JUnit Testing Class for the choice_optimizer.EvolutionEngine class.
+ *
+ * @author Matthew Mussomele
+ */
+public class TestEvolutionEngine {
+
+    private static final int THIS_YEAR = 2015;
+    private static final int RA_COUNT = 3;
+    private static final int DUTY_COUNT = 6;
+
+    private ArrayList<RA> raList;
+    private Duty[] duties;
+    private ScheduleProblem problem;
+
+    /**
+     * Builds a Problem of three RAs sharing six duties, each RA wanting a different pair most.
+     */
+    @Before public void setUp() {
+        duties = new Duty[DUTY_COUNT];
+        for (int i = 0; i < DUTY_COUNT; i += 1) {
+            duties[i] = new Duty(THIS_YEAR, 1, 3 * i + 1, i);
+        }
+        raList = new ArrayList<RA>();
+        for (int i = 0; i < RA_COUNT; i += 1) {
+            RABuilder builder = new RABuilder(String.format("RA%d", i), DUTY_COUNT, 2);
+            for (int j = 0; j < DUTY_COUNT; j += 1) {
+                builder.putPreference(duties[j], j / 2 == i ? 1 : DUTY_COUNT);
+            }
+            raList.add(builder.build());
+        }
+        problem = new ScheduleProblem(raList, Arrays.asList(duties), ScheduleContext.DEFAULT);
+    }
+
+    /**
+     * Creates options for a short evolution.
+     *
+     * @param  size The population size
+     * @return      A builder for the options
+     */
+    private OptionsBuilder shortRun(int size) {
+        return new OptionsBuilder().setPopulationSize(size).setIterations(20).setRuns(2)
+                                   .setSeedAttempts(50);
+    }
+
+    /**
+     * Tests that an engine finds the Schedule giving every RA their favourite duties.
+     */
+    @Test public void testSolve() {
+        EvolutionEngine<RA, Duty> engine
+                = new EvolutionEngine<RA, Duty>(problem, shortRun(8).build(), new Random(7));
+        Schedule best = (Schedule) engine.solve();
+        for (int i = 0; i < RA_COUNT; i += 1) {
+            assertTrue(best.getAssignments(raList.get(i)).contains(duties[2 * i]));
+            assertTrue(best.getAssignments(raList.get(i)).contains(duties[2 * i + 1]));
+        }
+        assertTrue(engine.diversity() >= 0.0 && engine.diversity() <= 1.0);
+    }
+
+    /**
+     * Tests that engines with different options can evolve the same Problem at the same time.
+     */
+    @Test public void testConcurrentEngines() throws InterruptedException {
+        EvolutionOptions[] options = {
+            shortRun(6).build(),
+            shortRun(10).setSteadyState(true).setSelection("tournament", 3).build(),
+            shortRun(4).setSelection("rank", 1.5).setEvalThreads(2).build()
+        };
+        SolverThread[] solvers = new SolverThread[options.length];
+        for (int i = 0; i < options.length; i += 1) {
+            solvers[i] = new SolverThread(problem, options[i]);
+            solvers[i].start();
+        }
+        for (SolverThread solver : solvers) {
+            solver.join();
+            assertNotNull(solver.getBest());
+            assertTrue(solver.getBest().getCost() > 0.0);
+        }
+    }
+
+    /**
+     * Tests that duplicate offspring are made up for with mutations, so that random Mappings are
+     * only asked for when part of the population is restarted.
+     */
+    @Test public void testRandomOnlyOnRestart() {
+        Random gen = new Random(11);
+        ArrayList<Mapping<RA, Duty>> seeds = new ArrayList<Mapping<RA, Duty>>();
+        HashSet<Double> costs = new HashSet<Double>();
+        while (seeds.size() < 4) {
+            Mapping<RA, Duty> seed = problem.randomMapping(gen);
+            if (costs.add(seed.getCost())) {
+                seeds.add(seed);
+            }
+        }
+        CountingProblem counting = new CountingProblem(problem, seeds);
+        EvolutionEngine<RA, Duty> engine = new EvolutionEngine<RA, Duty>(counting,
+                                        shortRun(4).setDiversityThreshold(0).build(), gen);
+        engine.evolve();
+        assertEquals(0, engine.getRestarts());
+        assertEquals(0, counting.getRandomCalls());
+        engine = new EvolutionEngine<RA, Duty>(counting,
+                                        shortRun(4).setDiversityThreshold(1).build(), gen);
+        engine.evolve();
+        assertTrue(engine.getRestarts() > 0);
+        assertTrue(counting.getRandomCalls() > 0);
+    }
+
+    /**
+     * Tests that invalid options are rejected when they are built.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidOptions() {
+        new OptionsBuilder().setPopulationSize(5);
+    }
+
+    /**
+     * Tests that an OptionsBuilder started from existing options copies all of them.
+     */
+    @Test public void testCopyOptions() {
+        EvolutionOptions base = shortRun(12).setSteadyState(true).setEvalThreads(3).build();
+        EvolutionOptions copy = new OptionsBuilder(base).setRuns(1).build();
+        assertEquals(1, copy.getRuns());
+        assertEquals(base.getPopulationSize(), copy.getPopulationSize());
+        assertEquals(base.getIterations(), copy.getIterations());
+        assertEquals(base.getSeedAttempts(), copy.getSeedAttempts());
+        assertEquals(base.isSteadyState(), copy.isSteadyState());
+        assertSame(base.getSelection(), copy.getSelection());
+        assertEquals(base.getDiversityThreshold(), copy.getDiversityThreshold(), 0);
+        assertEquals(base.getRestartFraction(), copy.getRestartFraction(), 0);
+        assertEquals(3, copy.getEvalThreads());
+    }
+
+}
@@ -0,0 +1,79 @@
+package testing;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import choice_optimizer.FingerprintSet;
+
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * JUnit Testing Class for the choice_optimizer.FingerprintSet class.
+ *
+ * @author Matthew Mussomele
+ */
+public class TestFingerprintSet {
+
+    /**
+     * Tests adding, finding and removing fingerprints, including 0.
+     */
+    @Test public void testBasics() {
+        FingerprintSet set = new FingerprintSet(4);
+        assertTrue(set.add(0L));
+        assertTrue(set.add(-7L));
+        assertFalse(set.add(0L));
+        assertTrue(set.contains(0L));
+        assertTrue(set.contains(-7L));
+        assertFalse(set.contains(7L));
+        assertEquals(2, set.size());
+        assertTrue(set.remove(0L));
+        assertFalse(set.remove(0L));
+        assertFalse(set.contains(0L));
+        set.clear();
+        assertEquals(0, set.size());
+        assertFalse(set.contains(-7L));
+    }
+
+    /**
+     * Tests that the set agrees with a HashSet through random additions and removals that make
+     * it grow past its expected size and leave long probe runs behind.
+     */
+    @Test public void testAgainstHashSet() {
+        Random gen = new Random(11);
+        FingerprintSet set = new FingerprintSet(8);
+        HashSet<Long> expected = new HashSet<Long>();
+        for (int i = 0; i < 20000; i += 1) {
+            long print = (long) gen.nextInt(200) << 40;
+            if (gen.nextBoolean()) {
+                assertEquals(expected.add(print), set.add(print));
+            } else {
+                assertEquals(expected.remove(print), set.remove(print));
+            }
+            assertEquals(expected.size(), set.size());
+        }
+        for (long print = 0; print < 200; print += 1) {
+            assertEquals(expected.contains(print << 40), set.contains(print << 40));
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+package testing;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import duty_scheduler.QuotaMatching;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * JUnit Testing Class for the duty_scheduler.QuotaMatching class.
+ *
+ * @author Matthew Mussomele
+ */
+public class TestQuotaMatching {
+
+    @Test
+    public void testGive() {
+        QuotaMatching matching = new QuotaMatching(new int[][] {{0, 1}, {0}}, new int[] {1, 1});
+        assertTrue(matching.hasRoom(0));
+        matching.give(0, 0);
+        assertFalse(matching.hasRoom(0));
+        assertEquals(1, matching.load(0));
+        assertArrayEquals(new int[] {0, -1}, matching.getOwners());
+    }
+
+    @Test
+    public void testAugmentMovesDuties() {
+        QuotaMatching matching = new QuotaMatching(new int[][] {{0, 1}, {1, 2}, {0}},
+                                                   new int[] {1, 1, 1});
+        matching.give(0, 0);
+        matching.give(1, 1);
+        assertTrue(matching.augment(2));
+        assertArrayEquals(new int[] {1, 2, 0}, matching.getOwners());
+        for (int r = 0; r < 3; r += 1) {
+            assertEquals(1, matching.load(r));
+        }
+    }
+
+    @Test
+    public void testAugmentFails() {
+        QuotaMatching matching = new QuotaMatching(new int[][] {{0}, {0}}, new int[] {1, 1});
+        assertTrue(matching.augment(0));
+        assertFalse(matching.augment(1));
+        assertArrayEquals(new int[] {0, -1}, matching.getOwners());
+        assertEquals(0, matching.load(1));
+    }
+
+    @Test
+    public void testOwnersCopied() {
+        QuotaMatching matching = new QuotaMatching(new int[][] {{0}}, new int[] {1});
+        matching.getOwners()[0] = 0;
+        assertArrayEquals(new int[] {-1}, matching.getOwners());
+    }
+
+}
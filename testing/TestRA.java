@@ -77,6 +77,52 @@ public class TestRA {
         }
     }
 
+    /**
+     * Test that Duty instances an RA did not rank get the default weight, whether or not they
+     * have ordinals.
+     */
+    @Test public void testDefaultWeight() {
+        ArrayList<Duty> indexed = new ArrayList<Duty>();
+        for (int i = 0; i < 1000; i += 1) {
+            indexed.add(new Duty(THIS_YEAR + i / 300, i % 300 / 28, i % 28 + 1, i));
+        }
+        RABuilder builder = new RABuilder("Erin", indexed.size(), 2);
+        builder.setDefaultWeight(7);
+        builder.putPreference(indexed.get(900), 1);
+        builder.putPreference(indexed.get(3), 2);
+        builder.putPreference(duties.get(1), 3);
+        RA sparse = builder.build();
+        assertEquals(1, sparse.itemWeight(indexed.get(900)));
+        assertEquals(2, sparse.itemWeight(indexed.get(3)));
+        assertEquals(3, sparse.itemWeight(duties.get(1)));
+        assertEquals(7, sparse.itemWeight(indexed.get(4)));
+        assertEquals(7, sparse.itemWeight(duties.get(2)));
+        assertTrue(sparse.ranksItem(indexed.get(3)));
+        assertFalse(sparse.ranksItem(indexed.get(999)));
+        assertEquals(7, sparse.getDefaultWeight());
+        builder.setDefaultWeight(8);
+        assertFalse(sparse.interchangeableWith(builder.build()));
+        builder.setDefaultWeight(7);
+        assertTrue(sparse.interchangeableWith(builder.build()));
+    }
+
+    /**
+     * Test that interchangeableWith(...) only matches RAs with the same preferences and quota.
+     */
+    @Test public void testInterchangeable() {
+        RABuilder same = new RABuilder("Alice", 4, 2);
+        RABuilder greedier = new RABuilder("Carol", 4, 3);
+        RABuilder different = new RABuilder("Dave", 4, 2);
+        for (int i = 0; i < duties.size(); i += 1) {
+            same.putPreference(duties.get(i), i);
+            greedier.putPreference(duties.get(i), i);
+            different.putPreference(duties.get(i), (duties.size() - i) % duties.size());
+        }
+        assertTrue(test.interchangeableWith(same.build()));
+        assertFalse(test.interchangeableWith(greedier.build()));
+        assertFalse(test.interchangeableWith(different.build()));
+    }
+
     /**
      * Test that eligibleItem(...) works correctly.
      */
@@ -87,4 +133,28 @@ public class TestRA {
         }
     }
 
+    /**
+     * Test that the eligibility bitset agrees with eligibleItem(...) for Duty ordinals.
+     */
+    @Test public void testEligibleMask() {
+        RABuilder builder = new RABuilder("Ann", 70, 2);
+        ArrayList<Duty> numbered = new ArrayList<Duty>();
+        for (int i = 0; i < 70; i += 1) {
+            numbered.add(new Duty(THIS_YEAR, i / 28, i % 28 + 1, i));
+            builder.putPreference(numbered.get(i), i % 3 == 0 ? 0 : i + 1);
+        }
+        RA masked = builder.build();
+        long[] all = new long[] {-1L, (1L << 6) - 1};
+        assertEquals(46, masked.countEligible(all));
+        for (int n = 0; n < 46; n += 1) {
+            int ordinal = masked.nthEligible(all, n);
+            assertTrue(masked.eligibleItem(numbered.get(ordinal)));
+            assertEquals(n, ordinal - ordinal / 3 - 1);
+        }
+        assertEquals(-1, masked.nthEligible(all, 46));
+        assertFalse(masked.eligibleItem(new Duty(THIS_YEAR, 0, 1)));
+        assertTrue(masked.masks(69));
+        assertFalse(masked.masks(70));
+    }
+
 }
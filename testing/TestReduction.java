@@ -0,0 +1,202 @@
+package testing;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import duty_scheduler.RA;
+import duty_scheduler.RA.RABuilder;
+import duty_scheduler.Duty;
+import duty_scheduler.Reduction;
+import duty_scheduler.Schedule;
+import duty_scheduler.ScheduleContext;
+import duty_scheduler.ScheduleProblem;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * JUnit Testing Class for the duty_scheduler.Reduction class.
+ *
+ * @author Matthew Mussomele
+ */
+public class TestReduction {
+
+    private static final int THIS_YEAR = 2015;
+
+    private ArrayList<RA> raList;
+    private ArrayList<Duty> dutyList;
+
+    /**
+     * Builds three RAs over six duties. RA0 can only do the first two duties and needs two, and
+     * only RA2 can do the last duty, so three duties are forced and the other RAs lose the first
+     * two.
+     */
+    @Before public void setUp() {
+        dutyList = new ArrayList<Duty>();
+        for (int i = 0; i < 6; i += 1) {
+            dutyList.add(new Duty(THIS_YEAR, 1, 2 * i + 1));
+        }
+        raList = new ArrayList<RA>();
+        RABuilder first = new RABuilder("RA0", 6, 2);
+        first.putPreference(dutyList.get(0), 1);
+        first.putPreference(dutyList.get(1), 2);
+        for (int j = 2; j < 6; j += 1) {
+            first.putPreference(dutyList.get(j), 0);
+        }
+        raList.add(first.build());
+        for (int i = 1; i < 3; i += 1) {
+            RABuilder builder = new RABuilder(String.format("RA%d", i), 6, 2);
+            for (int j = 0; j < 5; j += 1) {
+                builder.putPreference(dutyList.get(j), j + 1);
+            }
+            builder.putPreference(dutyList.get(5), i == 2 ? 6 : 0);
+            raList.add(builder.build());
+        }
+    }
+
+    /**
+     * Tests that forced duties are pinned and that the choices they rule out are dropped.
+     */
+    @Test public void testPinned() {
+        Reduction reduction = new Reduction(raList, dutyList, false);
+        assertEquals(3, reduction.getFixedCount());
+        assertEquals(4, reduction.getPrunedCount());
+        assertFalse(reduction.isComplete());
+        ArrayList<RA> ras = reduction.getRAs();
+        assertEquals(raList, ras);
+        for (int i = 0; i < 3; i += 1) {
+            assertEquals(2, ras.get(i).requiredDuties());
+        }
+        assertFalse(ras.get(1).eligibleItem(dutyList.get(0)));
+        assertFalse(ras.get(2).eligibleItem(dutyList.get(1)));
+        assertTrue(ras.get(2).eligibleItem(dutyList.get(5)));
+        assertEquals(raList.get(1).itemWeight(dutyList.get(3)),
+                     ras.get(1).itemWeight(dutyList.get(3)));
+    }
+
+    /**
+     * Tests that choices no complete assignment can make are dropped even when no Duty is forced.
+     * RA0 and RA1 can only do the first two duties between them, so RA2 cannot take either.
+     */
+    @Test public void testDominated() {
+        ArrayList<Duty> four = new ArrayList<Duty>(dutyList.subList(0, 4));
+        int[][] weights = {{1, 2, 0, 0}, {1, 2, 0, 0}, {1, 2, 3, 4}, {0, 0, 3, 4}};
+        ArrayList<RA> ras = new ArrayList<RA>();
+        for (int i = 0; i < weights.length; i += 1) {
+            RABuilder builder = new RABuilder(String.format("RA%d", i), 4, 1);
+            for (int j = 0; j < four.size(); j += 1) {
+                builder.putPreference(four.get(j), weights[i][j]);
+            }
+            ras.add(builder.build());
+        }
+        Reduction reduction = new Reduction(ras, four, false);
+        assertEquals(0, reduction.getFixedCount());
+        assertEquals(2, reduction.getPrunedCount());
+        RA narrowed = reduction.getRAs().get(2);
+        assertFalse(narrowed.eligibleItem(four.get(0)));
+        assertFalse(narrowed.eligibleItem(four.get(1)));
+        assertTrue(narrowed.eligibleItem(four.get(2)));
+        assertSame(ras.get(0), reduction.getRAs().get(0));
+    }
+
+    /**
+     * Tests that Schedules of the narrowed RAs keep the pinned duties through mutation and are
+     * costed the same as the full problem. Few swaps are legal once duties are pinned, so a
+     * mutation may find none and return null.
+     */
+    @Test public void testPinnedSchedules() {
+        Reduction reduction = new Reduction(raList, dutyList, false);
+        ScheduleProblem problem = new ScheduleProblem(reduction.getRAs(), dutyList,
+                                                      ScheduleContext.DEFAULT);
+        Schedule schedule = problem.randomMapping(new Random(5));
+        for (int i = 0; i < 50; i += 1) {
+            assertTrue(schedule.getAssignments(raList.get(0)).contains(dutyList.get(0)));
+            assertTrue(schedule.getAssignments(raList.get(0)).contains(dutyList.get(1)));
+            assertTrue(schedule.getAssignments(raList.get(2)).contains(dutyList.get(5)));
+            Schedule.ScheduleBuilder builder = new Schedule.ScheduleBuilder(raList.size(),
+                                                                            dutyList.size());
+            for (RA ra : raList) {
+                builder.putAssignmentList(ra, new ArrayList<Duty>(schedule.getAssignments(ra)));
+            }
+            assertEquals(builder.build().getCost(), schedule.getCost(), 1e-9);
+            Schedule mutated = schedule.mutate();
+            if (mutated != null) {
+                schedule = mutated;
+            }
+        }
+    }
+
+    /**
+     * Tests that a problem whose every choice is forced is solved outright.
+     */
+    @Test public void testComplete() {
+        ArrayList<RA> pair = new ArrayList<RA>();
+        for (int i = 0; i < 2; i += 1) {
+            RABuilder builder = new RABuilder(String.format("RA%d", i), 2, 1);
+            builder.putPreference(dutyList.get(i), 1);
+            builder.putPreference(dutyList.get(1 - i), 0);
+            pair.add(builder.build());
+        }
+        ArrayList<Duty> two = new ArrayList<Duty>(dutyList.subList(0, 2));
+        Reduction reduction = new Reduction(pair, two, false);
+        assertTrue(reduction.isComplete());
+        Schedule full = reduction.matchedSchedule(ScheduleContext.DEFAULT);
+        assertNotNull(full);
+        assertTrue(full.getAssignments(pair.get(1)).contains(two.get(1)));
+    }
+
+    /**
+     * Tests that the matched Schedule still covers an RA that needs no duties.
+     */
+    @Test public void testIdleRA() {
+        ArrayList<RA> ras = new ArrayList<RA>();
+        for (int i = 0; i < 2; i += 1) {
+            RABuilder builder = new RABuilder(String.format("RA%d", i), 2, 2 - 2 * i);
+            builder.putPreference(dutyList.get(0), 1);
+            builder.putPreference(dutyList.get(1), 2);
+            ras.add(builder.build());
+        }
+        Reduction reduction = new Reduction(ras, new ArrayList<Duty>(dutyList.subList(0, 2)),
+                                            false);
+        assertTrue(reduction.isComplete());
+        Schedule full = reduction.matchedSchedule(ScheduleContext.DEFAULT);
+        assertNotNull(full);
+        assertEquals(2, full.getAssignments(ras.get(0)).size());
+        assertTrue(full.getAssignments(ras.get(1)).isEmpty());
+    }
+
+    /**
+     * Tests that a problem with no valid Schedule is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class) public void testInfeasible() {
+        ArrayList<RA> pair = new ArrayList<RA>();
+        for (int i = 0; i < 2; i += 1) {
+            RABuilder builder = new RABuilder(String.format("RA%d", i), 2, 1);
+            builder.putPreference(dutyList.get(0), 1);
+            builder.putPreference(dutyList.get(1), 0);
+            pair.add(builder.build());
+        }
+        new Reduction(pair, new ArrayList<Duty>(dutyList.subList(0, 2)), false);
+    }
+
+}
@@ -0,0 +1,130 @@
+package testing;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import duty_scheduler.Duty;
+import duty_scheduler.RA;
+import duty_scheduler.RA.RABuilder;
+import duty_scheduler.Roster;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * JUnit Testing Class for the duty_scheduler.Roster class.
+ *
+ * @author Matthew Mussomele
+ */
+public class TestRoster {
+
+    private ArrayList<RA> raList;
+    private Roster roster;
+
+    /**
+     * Builds a Roster of three RAs.
+     */
+    @Before public void setUp() {
+        raList = new ArrayList<RA>();
+        for (int i = 0; i < 3; i += 1) {
+            raList.add(new RABuilder(String.format("RA%d", i), 6, 2).build());
+        }
+        roster = new Roster(raList);
+    }
+
+    /**
+     * Tests that RAs are indexed in the order they were given.
+     */
+    @Test public void testIndex() {
+        assertEquals(3, roster.size());
+        for (int i = 0; i < raList.size(); i += 1) {
+            assertEquals(raList.get(i), roster.get(i));
+            assertEquals(i, roster.indexOf(raList.get(i)));
+        }
+        assertEquals(-1, roster.indexOf(new RABuilder("RA3", 6, 2).build()));
+    }
+
+    /**
+     * Tests that RAs are found by ordinal when it matches their index, and by name otherwise.
+     */
+    @Test public void testOrdinal() {
+        ArrayList<RA> indexed = new ArrayList<RA>();
+        for (int i = 0; i < 3; i += 1) {
+            RABuilder builder = new RABuilder(String.format("RA%d", i), 6, 2);
+            builder.setOrdinal(2 - i);
+            indexed.add(builder.build());
+        }
+        assertEquals(2, indexed.get(0).ordinal());
+        assertEquals(-1, raList.get(0).ordinal());
+        Roster ordered = new Roster(indexed);
+        Roster single = new Roster(new ArrayList<RA>(indexed.subList(1, 2)));
+        for (int i = 0; i < indexed.size(); i += 1) {
+            assertEquals(i, ordered.indexOf(indexed.get(i)));
+            assertEquals(i, ordered.indexOf(raList.get(i)));
+            assertEquals(i, roster.indexOf(indexed.get(i)));
+        }
+        assertEquals(0, single.indexOf(indexed.get(1)));
+        assertEquals(-1, single.indexOf(indexed.get(0)));
+    }
+
+    /**
+     * Tests that a Roster only covers maps keyed by exactly its RAs.
+     */
+    @Test public void testCovers() {
+        HashMap<RA, Integer> map = new HashMap<RA, Integer>();
+        for (int i = 0; i < 2; i += 1) {
+            map.put(raList.get(i), i);
+        }
+        assertFalse(roster.covers(map));
+        map.put(raList.get(2), 2);
+        assertTrue(roster.covers(map));
+        map.put(new RABuilder("RA3", 6, 2).build(), 3);
+        assertFalse(roster.covers(map));
+    }
+
+    /**
+     * Tests that only a Roster built with duties groups interchangeable RAs, and only RAs with
+     * the same preferences and required duties.
+     */
+    @Test public void testSymmetry() {
+        raList.add(new RABuilder("RA3", 6, 3).build());
+        Roster plain = new Roster(raList);
+        Roster grouped = new Roster(raList, new ArrayList<Duty>());
+        assertEquals(-1, plain.symmetryClass(raList.get(0)));
+        assertFalse(plain.interchangeable(raList.get(0), raList.get(1)));
+        assertEquals(0, grouped.symmetryClass(raList.get(0)));
+        assertEquals(0, grouped.symmetryClass(raList.get(2)));
+        assertEquals(-1, grouped.symmetryClass(raList.get(3)));
+        assertTrue(grouped.interchangeable(raList.get(0), raList.get(2)));
+        assertFalse(grouped.interchangeable(raList.get(0), raList.get(3)));
+    }
+
+    /**
+     * Tests that an RA can not be listed twice.
+     */
+    @Test(expected = IllegalArgumentException.class) public void testDuplicate() {
+        raList.add(raList.get(0));
+        new Roster(raList);
+    }
+
+}
@@ -22,10 +22,13 @@ package testing;
 import duty_scheduler.RA;
 import duty_scheduler.RA.RABuilder;
 import duty_scheduler.Duty;
+import duty_scheduler.Roster;
 import duty_scheduler.Schedule;
+import duty_scheduler.ScheduleContext;
 import duty_scheduler.Schedule.ScheduleBuilder;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.Assert.*;
 import org.junit.Before;
@@ -89,7 +92,8 @@ public class TestSchedule {
     /**
      * Tests that the built Schedule's basic functions perform to the requirements of the package.
      * These tests are to ensure that these methods are not changed by a programmer in such a way 
-     * that would cause Schedules to be lost in a Hash or Tree based structure.
+     * that would cause Schedules to be lost in a Hash or Tree based structure, whether or not
+     * they have been costed yet.
      */
     @Test public void testBasics() {
         for (int i = 0; i < raList.size(); i += 1) {
@@ -99,6 +103,221 @@ public class TestSchedule {
         }
         assertTrue(test.equals(test));
         assertEquals(0, test.compareTo(test));
+        ScheduleBuilder builder = new ScheduleBuilder(raList.size(), dutyList.size());
+        for (RA ra : raList) {
+            builder.putAssignmentList(ra, new ArrayList<Duty>(test.getAssignments(ra)));
+        }
+        Schedule twin = builder.build();
+        test.getCost();
+        assertTrue(test.equals(twin));
+        assertTrue(twin.equals(test));
+        assertEquals(test.hashCode(), twin.hashCode());
+    }
+
+    /**
+     * Tests that mutation always moves at least one Duty.
+     */
+    @Test public void testMutateMoves() {
+        for (int i = 0; i < 100; i += 1) {
+            Schedule mutated = test.mutate();
+            assertFalse(mutated.getAssignments(raList.get(0))
+                               .equals(test.getAssignments(raList.get(0))));
+        }
+    }
+
+    /**
+     * Tests that mutated Schedules that only recost the two changed RAs of a costed parent are
+     * costed the same as Schedules built from scratch, whether or not their parents were costed.
+     */
+    @Test public void testMutateCost() {
+        ArrayList<RA> ras = new ArrayList<RA>();
+        for (int i = 0; i < 3; i += 1) {
+            RABuilder builder = new RABuilder(String.format("RA%d", i), 6, 2);
+            for (int j = 0; j < 6; j += 1) {
+                builder.putPreference(dutyList.get(j), (i * 4 + j * 5) % 6 + 1);
+            }
+            ras.add(builder.build());
+        }
+        ScheduleBuilder builder = new ScheduleBuilder(ras.size(), dutyList.size());
+        for (int j = 0; j < 6; j += 1) {
+            builder.putAssignment(ras.get(j / 2), dutyList.get(j));
+        }
+        Schedule schedule = builder.build();
+        schedule.getCost();
+        for (int i = 0; i < 50; i += 1) {
+            schedule = schedule.mutate();
+            if (i % 3 == 0) {
+                continue;
+            }
+            ScheduleBuilder fresh = new ScheduleBuilder(ras.size(), dutyList.size());
+            for (RA ra : ras) {
+                fresh.putAssignmentList(ra, new ArrayList<Duty>(schedule.getAssignments(ra)));
+            }
+            assertEquals(fresh.build().getCost(), schedule.getCost(), 1e-9);
+        }
+    }
+
+    /**
+     * Tests that the distance between Schedules counts the Duty instances that changed RA.
+     */
+    @Test public void testDistance() {
+        assertEquals(0, test.distance(test));
+        ScheduleBuilder builder = new ScheduleBuilder(raList.size(), dutyList.size());
+        for (int i = 0; i < 3; i += 1) {
+            builder.putAssignment(raList.get(0), dutyList.get(i));
+            builder.putAssignment(raList.get(1), dutyList.get(5 - i));
+        }
+        assertEquals(dutyList.size(), test.distance(builder.build()));
+        int moved = test.distance(test.mutate());
+        assertTrue(moved > 0 && moved % 2 == 0);
+    }
+
+    /**
+     * Tests that in-place moves report the same change in cost as rebuilding the Schedule, and
+     * that undoing a move restores the Schedule.
+     */
+    @Test public void testMoves() {
+        Schedule moving = test.copy();
+        RA first = raList.get(0);
+        RA second = raList.get(1);
+        Duty given = dutyList.get(5);
+        Duty taken = dutyList.get(0);
+        ScheduleBuilder builder = new ScheduleBuilder(raList.size(), dutyList.size());
+        builder.putAssignment(first, taken);
+        builder.putAssignment(first, dutyList.get(4));
+        builder.putAssignment(first, dutyList.get(3));
+        for (int i = 0; i < 3; i += 1) {
+            builder.putAssignment(second, i == 0 ? given : dutyList.get(i));
+        }
+        double expected = builder.build().getCost() - test.getCost();
+        assertEquals(expected, moving.swapDelta(first, given, second, taken), 1e-9);
+        assertEquals(test.getCost(), moving.getCost(), 0.0);
+        moving.swap(first, given, second, taken);
+        assertEquals(test.getCost() + expected, moving.getCost(), 1e-9);
+        assertTrue(moving.getAssignments(first).contains(taken));
+        assertTrue(test.getAssignments(first).contains(given));
+        moving.undo();
+        assertEquals(test.getCost(), moving.getCost(), 0.0);
+        assertTrue(moving.getAssignments(first).contains(given));
+        double delta = moving.transferDelta(first, given, second);
+        moving.transfer(first, given, second);
+        assertEquals(test.getCost() + delta, moving.getCost(), 1e-9);
+        assertEquals(2, moving.getAssignments(first).size());
+        moving.undo();
+        assertEquals(test.getCost(), moving.getCost(), 0.0);
+    }
+
+    /**
+     * Tests that fingerprints ignore the order of assignments and tell apart Schedules that give
+     * an RA different duties, unless the RAs are interchangeable.
+     */
+    @Test public void testFingerprint() {
+        ScheduleBuilder builder = new ScheduleBuilder(raList.size(), dutyList.size());
+        for (int i = 2; i >= 0; i -= 1) {
+            builder.putAssignment(raList.get(0), dutyList.get(5 - i));
+            builder.putAssignment(raList.get(1), dutyList.get(i));
+        }
+        assertEquals(test.fingerprint(), builder.build().fingerprint());
+        assertTrue(test.fingerprint() != test.mutate().fingerprint());
+        ArrayList<RA> twins = new ArrayList<RA>();
+        for (int i = 0; i < 2; i += 1) {
+            twins.add(new RABuilder(String.format("RA%d", i), 6, 3).build());
+        }
+        Roster roster = new Roster(twins, dutyList);
+        Schedule[] swapped = new Schedule[2];
+        for (int s = 0; s < 2; s += 1) {
+            builder = new ScheduleBuilder(roster, dutyList.size(), ScheduleContext.DEFAULT);
+            for (int i = 0; i < 3; i += 1) {
+                builder.putAssignment(twins.get(s), dutyList.get(i));
+                builder.putAssignment(twins.get(1 - s), dutyList.get(3 + i));
+            }
+            swapped[s] = builder.build();
+        }
+        assertEquals(swapped[0].fingerprint(), swapped[1].fingerprint());
+    }
+
+    /**
+     * Tests that moves on a Schedule do not change Schedules it shares assignment lists with.
+     */
+    @Test public void testCopyOnWrite() {
+        Schedule moving = test.copy();
+        RA first = raList.get(0);
+        RA second = raList.get(1);
+        moving.swap(first, dutyList.get(5), second, dutyList.get(0));
+        Schedule shared = moving.copy();
+        moving.swap(first, dutyList.get(4), second, dutyList.get(1));
+        assertTrue(shared.getAssignments(first).contains(dutyList.get(4)));
+        assertTrue(test.getAssignments(first).contains(dutyList.get(5)));
+        assertEquals(2, shared.distance(test));
+        assertEquals(4, moving.distance(test));
+    }
+
+    /**
+     * Tests that assignment views match the copies and cannot be changed.
+     */
+    @Test public void testView() {
+        List<Duty> view = test.viewAssignments(raList.get(0));
+        assertEquals(test.getAssignments(raList.get(0)), view);
+        try {
+            view.add(dutyList.get(0));
+            fail("The view of an RA's assignments should be read-only.");
+        } catch (UnsupportedOperationException e) {
+            assertEquals(3, test.viewAssignments(raList.get(0)).size());
+        }
+    }
+
+    /**
+     * Tests that mutation never hands an RA a Duty it can not take.
+     */
+    @Test public void testMutateEligible() {
+        Schedule mutated = test;
+        for (int i = 0; i < 100; i += 1) {
+            mutated = mutated.mutate();
+            for (RA ra : raList) {
+                for (Duty duty : mutated.viewAssignments(ra)) {
+                    assertTrue(ra.eligibleItem(duty));
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that mutation never only exchanges the single duties of two interchangeable RAs.
+     */
+    @Test public void testMutateSingleTwins() {
+        ArrayList<RA> ras = new ArrayList<RA>();
+        for (int i = 0; i < 3; i += 1) {
+            RABuilder builder = new RABuilder(String.format("RA%d", i), 3, 1);
+            for (int j = 0; j < 3; j += 1) {
+                builder.putPreference(dutyList.get(j), i < 2 ? j + 1 : 3 - j);
+            }
+            ras.add(builder.build());
+        }
+        Roster roster = new Roster(ras, dutyList.subList(0, 3));
+        ScheduleBuilder builder = new ScheduleBuilder(roster, 3, ScheduleContext.DEFAULT);
+        for (int i = 0; i < 3; i += 1) {
+            builder.putAssignment(ras.get(i), dutyList.get(i));
+        }
+        Schedule singles = builder.build();
+        for (int i = 0; i < 100; i += 1) {
+            Schedule mutated = singles.mutate();
+            assertNotNull(mutated);
+            assertTrue(singles.fingerprint() != mutated.fingerprint());
+        }
+    }
+
+    /**
+     * Tests that mutation gives up rather than propose a swap neither RA can take.
+     */
+    @Test public void testMutateNoLegalSwap() {
+        ScheduleBuilder builder = new ScheduleBuilder(raList.size(), 2);
+        for (int i = 0; i < 2; i += 1) {
+            RABuilder raBuilder = new RABuilder(String.format("Fixed%d", i), 2, 1);
+            raBuilder.putPreference(dutyList.get(i), 1);
+            raBuilder.putPreference(dutyList.get(1 - i), 0);
+            builder.putAssignment(raBuilder.build(), dutyList.get(i));
+        }
+        assertNull(builder.build().mutate());
     }
 
 }
@@ -0,0 +1,103 @@
+package testing;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import duty_scheduler.Duty;
+import duty_scheduler.ScheduleCost;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * JUnit Testing Class for the duty_scheduler.ScheduleCost class.
+ *
+ * @author Matthew Mussomele
+ */
+public class TestScheduleCost {
+
+    private static final int THIS_YEAR = 2015;
+
+    /**
+     * Tests that the default terms give the summed preference and adjacency penalty divided by
+     * the duties, rounded exactly as that formula rounds, and sum the schedule totals with the
+     * change penalty.
+     */
+    @Test public void testDefaults() {
+        ScheduleCost rules = new ScheduleCost("", true, 3.0, 0.25);
+        assertTrue(rules.countsAdjacency());
+        assertFalse(rules.countsWeekends());
+        assertEquals((10.0 + 2 * 1) / 4, rules.assignmentCost(10.0, 4, 1, 3), 0.0);
+        assertEquals((1.0 + 2 * 1) / 5, rules.assignmentCost(1.0, 5, 1, 0), 0.0);
+        assertEquals(10.0 + 2 + (3.0 + 1) + 3.0 * 2, rules.scheduleCost(10.0, 2, 3.0, 1, 2), 0.0);
+        rules = new ScheduleCost("", false, 0.0, 0.25);
+        assertFalse(rules.countsAdjacency());
+        assertEquals(10.0 / 4, rules.assignmentCost(10.0, 4, 1, 3), 0.0);
+    }
+
+    /**
+     * Tests that configured weights override the defaults, including the weekend balance term.
+     */
+    @Test public void testTerms() {
+        ScheduleCost rules = new ScheduleCost("weekend:2,adjacency:0,fairness:0", true, 0.0,
+                                              0.25);
+        assertTrue(rules.countsWeekends());
+        assertFalse(rules.countsAdjacency());
+        assertEquals((10.0 + 2.0 * Math.abs(3 - 0.25 * 4)) / 4,
+                     rules.assignmentCost(10.0, 4, 1, 3), 0.0);
+        assertEquals(10.0 + 2, rules.scheduleCost(10.0, 2, 3.0, 1, 2), 0.0);
+        assertEquals("preference:1.0,weekend:2.0,assignments:1.0,discrepancy:1.0",
+                     rules.toString());
+    }
+
+    /**
+     * Tests that every ScheduleCost evaluates its own rules, however many exist at once.
+     */
+    @Test public void testIndependentRules() {
+        ScheduleCost first = new ScheduleCost("", true, 3.0, 0.25);
+        ScheduleCost second = new ScheduleCost("weekend:2,adjacency:0", true, 0.0, 0.25);
+        assertEquals((10.0 + 2 * 1) / 4, first.assignmentCost(10.0, 4, 1, 3), 0.0);
+        assertEquals(10.0 + 2 + (3.0 + 1) + 3.0 * 2, first.scheduleCost(10.0, 2, 3.0, 1, 2), 0.0);
+        assertEquals((10.0 + 2.0 * Math.abs(3 - 0.25 * 4)) / 4,
+                     second.assignmentCost(10.0, 4, 1, 3), 0.0);
+        assertEquals(10.0 + 2 + (3.0 + 1), second.scheduleCost(10.0, 2, 3.0, 1, 2), 0.0);
+    }
+
+    /**
+     * Tests that the weekend share is the fraction of Friday and Saturday duties.
+     */
+    @Test public void testWeekendShare() {
+        ArrayList<Duty> duties = new ArrayList<Duty>();
+        for (int day = 1; day <= 8; day += 1) {
+            duties.add(new Duty(THIS_YEAR, 1, day));
+        }
+        assertEquals(0.25, ScheduleCost.weekendShare(duties), 0.0);
+    }
+
+    /**
+     * Tests that unknown terms are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownTerm() {
+        new ScheduleCost("holiday:1", true, 0.0, 0.25);
+    }
+
+}
@@ -0,0 +1,218 @@
+package testing;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import choice_optimizer.EvolutionEngine;
+import choice_optimizer.EvolutionOptions;
+import choice_optimizer.EvolutionOptions.OptionsBuilder;
+import duty_scheduler.RA;
+import duty_scheduler.RA.RABuilder;
+import duty_scheduler.Duty;
+import duty_scheduler.Schedule;
+import duty_scheduler.ScheduleContext;
+import duty_scheduler.ScheduleContext.ContextBuilder;
+import duty_scheduler.ScheduleCost;
+import duty_scheduler.ScheduleProblem;
+import duty_scheduler.WarmStart;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * JUnit Testing Class for the duty_scheduler.ScheduleProblem class.
+ *
+ * @author Matthew Mussomele
+ */
+public class TestScheduleProblem {
+
+    private static final int THIS_YEAR = 2015;
+    private static final int RA_COUNT = 3;
+    private static final int DUTY_COUNT = 9;
+
+    private ArrayList<RA> raList;
+    private ArrayList<Duty> dutyList;
+    private EvolutionOptions options;
+
+    /**
+     * Builds three RAs with different preferences over nine duties.
+     */
+    @Before public void setUp() {
+        dutyList = new ArrayList<Duty>();
+        for (int i = 0; i < DUTY_COUNT; i += 1) {
+            dutyList.add(new Duty(THIS_YEAR, 1, 2 * i + 1));
+        }
+        raList = new ArrayList<RA>();
+        for (int i = 0; i < RA_COUNT; i += 1) {
+            RABuilder builder = new RABuilder(String.format("RA%d", i), DUTY_COUNT, 
+                                              DUTY_COUNT / RA_COUNT);
+            for (int j = 0; j < DUTY_COUNT; j += 1) {
+                builder.putPreference(dutyList.get(j), (j + 3 * i) % DUTY_COUNT + 1);
+            }
+            raList.add(builder.build());
+        }
+        options = new OptionsBuilder().setPopulationSize(10).setIterations(50).setRuns(2)
+                                      .build();
+    }
+
+    /**
+     * Builds the Schedule that gives each RA every third duty.
+     *
+     * @param  context The rules the Schedule is costed under
+     * @return         The Schedule
+     */
+    private Schedule roundRobin(ScheduleContext context) {
+        Schedule.ScheduleBuilder builder = new Schedule.ScheduleBuilder(RA_COUNT, DUTY_COUNT,
+                                                                        context);
+        for (int j = 0; j < DUTY_COUNT; j += 1) {
+            builder.putAssignment(raList.get(j % RA_COUNT), dutyList.get(j));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Tests that random Schedules give every RA its required duties.
+     */
+    @Test public void testRandomMapping() {
+        ScheduleProblem problem = new ScheduleProblem(raList, dutyList, ScheduleContext.DEFAULT);
+        Schedule schedule = problem.randomMapping(new Random(3));
+        assertNotNull(schedule);
+        for (RA ra : raList) {
+            assertEquals(ra.requiredDuties(), schedule.getAssignments(ra).size());
+        }
+        assertTrue(problem.seedMappings(10, new Random(3)).isEmpty());
+        assertEquals(DUTY_COUNT, problem.itemCount());
+    }
+
+    /**
+     * Tests that Schedules seeded one after another on the same thread do not share the scratch
+     * space they were seeded from.
+     */
+    @Test public void testRepeatedSeeds() {
+        ScheduleProblem problem = new ScheduleProblem(raList, dutyList, ScheduleContext.DEFAULT);
+        Random gen = new Random(3);
+        Schedule first = problem.randomMapping(gen);
+        ArrayList<ArrayList<Duty>> held = new ArrayList<ArrayList<Duty>>();
+        for (RA ra : raList) {
+            held.add(new ArrayList<Duty>(first.getAssignments(ra)));
+        }
+        for (int i = 0; i < 20; i += 1) {
+            Schedule next = problem.randomMapping(gen);
+            assertNotNull(next);
+            for (RA ra : raList) {
+                assertEquals(ra.requiredDuties(), next.getAssignments(ra).size());
+            }
+        }
+        for (int i = 0; i < RA_COUNT; i += 1) {
+            assertEquals(held.get(i), first.getAssignments(raList.get(i)));
+        }
+    }
+
+    /**
+     * Tests that quotas that do not cover every duty are reported by throwing.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testShortQuotas() {
+        ArrayList<RA> greedy = new ArrayList<RA>();
+        for (int i = 0; i < RA_COUNT; i += 1) {
+            RABuilder builder = new RABuilder(String.format("RA%d", i), DUTY_COUNT, 1);
+            for (int j = 0; j < DUTY_COUNT; j += 1) {
+                builder.putPreference(dutyList.get(j), j + 1);
+            }
+            greedy.add(builder.build());
+        }
+        new ScheduleProblem(greedy, dutyList, ScheduleContext.DEFAULT).randomMapping(new Random(3));
+    }
+
+    /**
+     * Tests that evolution never loses its best Schedule and stays above the optimum.
+     */
+    @Test public void testEvolve() {
+        ScheduleProblem problem = new ScheduleProblem(raList, dutyList, ScheduleContext.DEFAULT);
+        EvolutionEngine<RA, Duty> engine = new EvolutionEngine<RA, Duty>(problem, options);
+        Schedule best = (Schedule) engine.evolve();
+        double[] history = engine.getHistory();
+        for (int i = 1; i < history.length; i += 1) {
+            assertTrue(history[i] <= history[i - 1]);
+        }
+        assertTrue(best.getCost() <= history[history.length - 1]);
+        assertTrue(best.getCost() >= TestUtils.getOptimalCost(raList, 
+                                                              new ArrayList<Duty>(dutyList)));
+        assertTrue(engine.diversity() > 0 && engine.diversity() <= 1);
+    }
+
+    /**
+     * Tests that a warm started problem seeds its populations with the previous Schedule and
+     * does no worse than it.
+     */
+    @Test public void testWarmSeed() {
+        Schedule base = roundRobin(ScheduleContext.DEFAULT);
+        HashMap<String, ArrayList<Duty>> previous = new HashMap<String, ArrayList<Duty>>();
+        for (RA ra : raList) {
+            previous.put(ra.toString(), new ArrayList<Duty>(base.getAssignments(ra)));
+        }
+        ScheduleContext warm = new ContextBuilder(new ScheduleCost("", true, 1.0,
+                                                       ScheduleCost.weekendShare(dutyList)))
+                                        .setWarmStart(new WarmStart(previous)).build();
+        ScheduleProblem problem = new ScheduleProblem(raList, dutyList, warm);
+        Schedule seed = (Schedule) problem.seedMappings(10, new Random(5)).get(0);
+        for (RA ra : raList) {
+            assertTrue(seed.getAssignments(ra).containsAll(base.getAssignments(ra)));
+        }
+        Schedule best = (Schedule) new EvolutionEngine<RA, Duty>(problem, options).solve();
+        assertTrue(best.getCost() <= roundRobin(warm).getCost());
+    }
+
+    /**
+     * Tests that problems with different cost rules can be solved at the same time, each
+     * Schedule being costed under the rules of its own problem.
+     */
+    @Test public void testSeparateContexts() throws InterruptedException {
+        ScheduleContext[] contexts = {
+            ScheduleContext.DEFAULT,
+            new ContextBuilder(new ScheduleCost("adjacency:0,fairness:3", false, 1.0,
+                                              ScheduleCost.weekendShare(dutyList)))
+                    .setMutationChance(0.5).build()
+        };
+        SolverThread[] solvers = new SolverThread[contexts.length];
+        for (int i = 0; i < contexts.length; i += 1) {
+            solvers[i] = new SolverThread(new ScheduleProblem(raList, dutyList, contexts[i]),
+                                          options);
+            solvers[i].start();
+        }
+        for (int i = 0; i < contexts.length; i += 1) {
+            solvers[i].join();
+            Schedule best = (Schedule) solvers[i].getBest();
+            Schedule.ScheduleBuilder builder = new Schedule.ScheduleBuilder(RA_COUNT, DUTY_COUNT,
+                                                                            contexts[i]);
+            for (RA ra : raList) {
+                builder.putAssignmentList(ra, new ArrayList<Duty>(best.getAssignments(ra)));
+            }
+            assertEquals(builder.build().getCost(), best.getCost(), 1e-9);
+        }
+        assertNotEquals(roundRobin(contexts[0]).getCost(), roundRobin(contexts[1]).getCost(),
+                        1e-9);
+    }
+
+}
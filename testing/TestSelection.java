@@ -0,0 +1,106 @@
+package testing;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *  
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it 
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the 
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *  
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import choice_optimizer.RankSelection;
+import choice_optimizer.Selection;
+import choice_optimizer.TournamentSelection;
+import choice_optimizer.TruncationSelection;
+import choice_optimizer.UniversalSampling;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * JUnit Testing Class for the choice_optimizer Selection strategies.
+ *
+ * @author Matthew Mussomele
+ */
+public class TestSelection {
+
+    private static final int POPULATION = 20;
+    private static final int PICKS = 20000;
+
+    /**
+     * Counts how often each rank is selected by single picks.
+     *
+     * @param  selection The Selection to test
+     * @return           The number of times each rank was picked
+     */
+    private int[] countPicks(Selection selection) {
+        Random gen = new Random(1);
+        int[] counts = new int[POPULATION];
+        for (int i = 0; i < PICKS; i += 1) {
+            int rank = selection.select(POPULATION, gen);
+            assertTrue(rank >= 0 && rank < POPULATION);
+            counts[rank] += 1;
+        }
+        return counts;
+    }
+
+    /**
+     * Tests that truncation selection only picks the better half, each once per batch.
+     */
+    @Test public void testTruncation() {
+        Selection selection = new TruncationSelection();
+        int[] counts = countPicks(selection);
+        for (int i = POPULATION / 2; i < POPULATION; i += 1) {
+            assertEquals(0, counts[i]);
+        }
+        int[] ranks = new int[POPULATION / 2];
+        selection.select(POPULATION, ranks, ranks.length, new Random(1));
+        for (int i = 0; i < ranks.length; i += 1) {
+            assertEquals(i, ranks[i]);
+        }
+    }
+
+    /**
+     * Tests that larger tournaments favour better ranks.
+     */
+    @Test public void testTournament() {
+        int[] uniform = countPicks(new TournamentSelection(1));
+        int[] pressured = countPicks(new TournamentSelection(4));
+        assertTrue(pressured[0] > 2 * uniform[0]);
+        assertTrue(pressured[POPULATION - 1] < uniform[POPULATION - 1]);
+    }
+
+    /**
+     * Tests that rank selection chances fall with rank.
+     */
+    @Test public void testRank() {
+        int[] counts = countPicks(new RankSelection(2.0));
+        assertTrue(counts[0] > counts[POPULATION / 2]);
+        assertTrue(counts[POPULATION / 2] > counts[POPULATION - 1]);
+    }
+
+    /**
+     * Tests that universal sampling without pressure picks every rank exactly once.
+     */
+    @Test public void testUniversalSampling() {
+        int[] ranks = new int[POPULATION];
+        new UniversalSampling(1.0).select(POPULATION, ranks, POPULATION, new Random(1));
+        for (int i = 0; i < POPULATION; i += 1) {
+            assertEquals(i, ranks[i]);
+        }
+    }
+
+}
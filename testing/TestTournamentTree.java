@@ -0,0 +1,110 @@
+package testing;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import duty_scheduler.TournamentTree;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * JUnit Testing Class for the duty_scheduler.TournamentTree class.
+ *
+ * @author Matthew Mussomele
+ */
+public class TestTournamentTree {
+
+    /**
+     * Tests that sums and maxima follow changed values, and that what-if queries give exactly
+     * what changing the values would, without changing them.
+     */
+    @Test public void testQueries() {
+        Random gen = new Random(3);
+        for (int size = 1; size <= 9; size += 1) {
+            TournamentTree tree = new TournamentTree(size);
+            double[] values = new double[size];
+            for (int k = 0; k < size; k += 1) {
+                values[k] = gen.nextDouble() * 10;
+            }
+            tree.load(values);
+            for (int trial = 0; trial < 50; trial += 1) {
+                int i = gen.nextInt(size + 1) - 1;
+                int j = gen.nextInt(size + 1) - 1;
+                double iValue = gen.nextDouble() * 10;
+                double jValue = gen.nextDouble() * 10;
+                TournamentTree changed = new TournamentTree(tree);
+                if (j >= 0) {
+                    changed.set(j, jValue);
+                }
+                if (i >= 0) {
+                    changed.set(i, iValue);
+                }
+                double max = Double.NEGATIVE_INFINITY;
+                for (int k = 0; k < size; k += 1) {
+                    max = Math.max(max, changed.get(k));
+                }
+                assertEquals(changed.sum(), tree.sumWith(i, iValue, j, jValue), 0.0);
+                assertEquals(max, tree.maxWith(i, iValue, j, jValue), 0.0);
+                assertEquals(max, changed.max(), 0.0);
+                if (gen.nextBoolean()) {
+                    tree = changed;
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that the sum depends only on the values, not on the order they were set in.
+     */
+    @Test public void testExactSums() {
+        double[] values = {0.1, 1e16, 0.3, -1e16, 0.7};
+        TournamentTree loaded = new TournamentTree(values.length);
+        loaded.load(values);
+        TournamentTree set = new TournamentTree(values.length);
+        for (int k = values.length - 1; k >= 0; k -= 1) {
+            set.set(k, values[k] + 1);
+        }
+        for (int k = 0; k < values.length; k += 1) {
+            set.set(k, values[k]);
+        }
+        assertEquals(loaded.sum(), set.sum(), 0.0);
+        assertEquals(1e16, loaded.max(), 0.0);
+    }
+
+    /**
+     * Tests that an empty tree has a sum of 0 and no maximum.
+     */
+    @Test public void testEmpty() {
+        TournamentTree tree = new TournamentTree(0);
+        assertEquals(0.0, tree.sum(), 0.0);
+        assertEquals(Double.NEGATIVE_INFINITY, tree.max(), 0.0);
+    }
+
+    /**
+     * Tests that values out of range are rejected.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testOutOfRange() {
+        new TournamentTree(3).set(3, 1.0);
+    }
+
+}
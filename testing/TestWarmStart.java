@@ -0,0 +1,169 @@
+package testing;
+
+/**
+ * Copyright (C) 2015 Matthew Mussomele
+ *
+ *  This file is part of ChoiceOptimizationAlgorithm
+ *
+ *  ChoiceOptimizationAlgorithm is free software: you can redistribute it
+ *  and/or modify it under the terms of the GNU General Public License as
+ *  published by the Free Software Foundation, either version 3 of the
+ *  License, or (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import duty_scheduler.RA;
+import duty_scheduler.RA.RABuilder;
+import duty_scheduler.Duty;
+import duty_scheduler.Schedule;
+import duty_scheduler.ScheduleContext;
+import duty_scheduler.ScheduleContext.ContextBuilder;
+import duty_scheduler.ScheduleCost;
+import duty_scheduler.ScheduleProblem;
+import duty_scheduler.WarmStart;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * JUnit Testing Class for the duty_scheduler.WarmStart class.
+ *
+ * @author Matthew Mussomele
+ */
+public class TestWarmStart {
+
+    private static final int THIS_YEAR = 2015;
+
+    private ArrayList<Duty> dutyList;
+    private WarmStart warmStart;
+
+    /**
+     * Records a previous Schedule in which RA0 had the first three of six duties.
+     */
+    @Before public void setUp() {
+        dutyList = new ArrayList<Duty>();
+        for (int i = 0; i < 6; i += 1) {
+            dutyList.add(new Duty(THIS_YEAR, 1, i + 1));
+        }
+        HashMap<String, ArrayList<Duty>> previous = new HashMap<String, ArrayList<Duty>>();
+        previous.put("RA0", new ArrayList<Duty>(dutyList.subList(0, 3)));
+        previous.put("RA1", new ArrayList<Duty>(dutyList.subList(3, 6)));
+        warmStart = new WarmStart(previous);
+    }
+
+    /**
+     * Builds an RA that ranks every duty except the one at index cantDo.
+     *
+     * @param  name   The name of the RA
+     * @param  duties The number of duties the RA needs
+     * @param  cantDo The index of the duty the RA cannot do, or -1
+     * @return        The new RA
+     */
+    private RA buildRA(String name, int duties, int cantDo) {
+        RABuilder builder = new RABuilder(name, dutyList.size(), duties);
+        for (int i = 0; i < dutyList.size(); i += 1) {
+            builder.putPreference(dutyList.get(i), i == cantDo ? 0 : i + 1);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Tests that duties are only counted as changes when they move to a different RA.
+     */
+    @Test public void testChanges() {
+        RA first = buildRA("RA0", 3, -1);
+        assertEquals(0, warmStart.changes(first, dutyList.subList(0, 3)));
+        assertEquals(2, warmStart.changes(first, dutyList.subList(2, 5)));
+    }
+
+    /**
+     * Tests that an unchanged input gives back the previous Schedule.
+     */
+    @Test public void testUnchanged() {
+        ArrayList<RA> ras = new ArrayList<RA>();
+        ras.add(buildRA("RA0", 3, -1));
+        ras.add(buildRA("RA1", 3, -1));
+        Schedule adapted = warmStart.adapt(ras, dutyList, ScheduleContext.DEFAULT,
+                                           new Random(7));
+        assertNotNull(adapted);
+        assertTrue(adapted.getAssignments(ras.get(0)).containsAll(dutyList.subList(0, 3)));
+        assertTrue(adapted.getAssignments(ras.get(1)).containsAll(dutyList.subList(3, 6)));
+    }
+
+    /**
+     * Tests that a Duty an RA can no longer take is moved, that new quotas are respected and
+     * that the same source of randomness adapts the same way.
+     */
+    @Test public void testAdapt() {
+        ArrayList<RA> ras = new ArrayList<RA>();
+        ras.add(buildRA("RA0", 2, 0));
+        ras.add(buildRA("RA1", 4, -1));
+        Schedule adapted = warmStart.adapt(ras, dutyList, ScheduleContext.DEFAULT,
+                                           new Random(7));
+        assertNotNull(adapted);
+        assertEquals(2, adapted.getAssignments(ras.get(0)).size());
+        assertFalse(adapted.getAssignments(ras.get(0)).contains(dutyList.get(0)));
+        assertTrue(adapted.getAssignments(ras.get(1)).contains(dutyList.get(0)));
+        assertTrue(adapted.getAssignments(ras.get(1)).containsAll(dutyList.subList(3, 6)));
+        Schedule again = warmStart.adapt(ras, dutyList, ScheduleContext.DEFAULT, new Random(7));
+        for (RA ra : ras) {
+            assertEquals(adapted.getAssignments(ra), again.getAssignments(ra));
+        }
+    }
+
+    /**
+     * Builds the Schedule of a problem that gives one RA the first three duties and the other
+     * RA the rest.
+     *
+     * @param  problem The problem whose Roster and rules the Schedule uses
+     * @param  ras     The two RAs, the first of which gets the first three duties
+     * @return         The Schedule
+     */
+    private Schedule split(ScheduleProblem problem, ArrayList<RA> ras) {
+        Schedule.ScheduleBuilder builder = new Schedule.ScheduleBuilder(problem.getRoster(),
+                                                                        dutyList.size(),
+                                                                        problem.getContext());
+        for (int i = 0; i < 3; i += 1) {
+            builder.putAssignment(ras.get(0), dutyList.get(i));
+            builder.putAssignment(ras.get(1), dutyList.get(3 + i));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Tests that RAs with equal preferences and quotas are only treated as interchangeable when
+     * there is no warm start, so Schedules that differ in cost never share a fingerprint.
+     */
+    @Test public void testNoSymmetryWhenWarm() {
+        ArrayList<RA> ras = new ArrayList<RA>();
+        ras.add(buildRA("RA0", 3, -1));
+        ras.add(buildRA("RA1", 3, -1));
+        ArrayList<RA> relabeled = new ArrayList<RA>();
+        relabeled.add(ras.get(1));
+        relabeled.add(ras.get(0));
+        ScheduleProblem cold = new ScheduleProblem(ras, dutyList, ScheduleContext.DEFAULT);
+        assertEquals(split(cold, ras).fingerprint(), split(cold, relabeled).fingerprint());
+        ScheduleContext warm = new ContextBuilder(new ScheduleCost("", true, 1.0,
+                                                       ScheduleCost.weekendShare(dutyList)))
+                                        .setWarmStart(warmStart).build();
+        ScheduleProblem problem = new ScheduleProblem(ras, dutyList, warm);
+        Schedule kept = split(problem, ras);
+        Schedule swapped = split(problem, relabeled);
+        assertTrue(kept.getCost() < swapped.getCost());
+        assertTrue(kept.fingerprint() != swapped.fingerprint());
+        assertFalse(problem.getRoster().interchangeable(ras.get(0), ras.get(1)));
+    }
+
+}